@@ -10,6 +10,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
 
@@ -19,6 +20,11 @@ import java.util.List;
 @NoArgsConstructor
 @SuperBuilder
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_book_owner", columnList = "owner_id, archived, shareable, created_date"),
+        @Index(name = "idx_book_displayable", columnList = "archived, shareable, created_date, id")
+})
+@DynamicUpdate
 public class Book extends BaseEntity {
 
     private String title;
@@ -26,8 +32,17 @@ public class Book extends BaseEntity {
     private String isbn;
     private String synopsis;
     private String bookCover;
+    private String coverCard;
+    private String coverThumbnail;
+    private String coverHash;
     private boolean archived;
     private boolean shareable;
+    private double rateSum;
+    private int rateCount;
+    private double rate;
+
+    @Version
+    private long version;
 
     @ManyToOne
     @JoinColumn(name = "owner_id")
@@ -38,17 +53,4 @@ public class Book extends BaseEntity {
 
     @OneToMany(mappedBy = "book")
     private List<TransactionHistory> histories;
-
-    @Transient
-    public Double getRate() {
-        if (feedBacks == null || feedBacks.isEmpty()) {
-            return 0.0;
-        }
-        var rate = this.feedBacks.stream()
-                .mapToDouble(Feedback::getNote)
-                .average()
-                .orElse(0.0);
-        double roundedRate = Math.round(rate * 10.0) / 10.0;
-        return roundedRate;
-    }
 }
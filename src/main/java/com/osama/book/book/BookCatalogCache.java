@@ -0,0 +1,177 @@
+package com.osama.book.book;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.osama.book.book.response.BookResponse;
+import com.osama.book.common.PageResponse;
+import com.osama.book.exception.InvalidRequestParameterException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class BookCatalogCache {
+
+    private static final String DISPLAYABLE_CATALOG = "displayable";
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final int maximumCatalogSize;
+    private final Cache<Integer, BookResponse> entries;
+    private final Cache<String, Catalog> catalogs;
+
+    public BookCatalogCache(
+            final BookRepository bookRepository,
+            final BookMapper bookMapper,
+            final MeterRegistry meterRegistry,
+            @Value("${application.cache.catalog.maximum-entries}") final long maximumEntries,
+            @Value("${application.cache.catalog.maximum-catalog-size}") final int maximumCatalogSize,
+            @Value("${application.cache.catalog.expire-after-write}") final Duration expireAfterWrite) {
+        this.bookRepository = bookRepository;
+        this.bookMapper = bookMapper;
+        this.maximumCatalogSize = maximumCatalogSize;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumEntries)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.catalogs = Caffeine.newBuilder()
+                .maximumWeight(maximumCatalogSize)
+                .<String, Catalog>weigher((key, catalog) -> catalog.bookIds().length)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.entries, "book.catalog.entries");
+        CaffeineCacheMetrics.monitor(meterRegistry, this.catalogs, "book.catalog.pages");
+    }
+
+    public Optional<PageResponse<BookResponse>> findDisplayableBooks(final int page, final int size, final Integer userId) {
+        if (page < 0 || size < 1) {
+            throw new InvalidRequestParameterException("Page must not be negative and size must be positive");
+        }
+        final Catalog catalog = this.catalogs.get(DISPLAYABLE_CATALOG, key -> loadCatalog());
+        if (!catalog.complete()) {
+            return Optional.empty();
+        }
+        final int[] ownPositions = catalog.ownerPositions().getOrDefault(userId, NO_POSITIONS);
+        final long totalElements = catalog.bookIds().length - ownPositions.length;
+        final long offset = (long) page * size;
+        final List<Integer> bookIds = offset < totalElements
+                ? catalog.slice((int) offset, size, ownPositions)
+                : List.of();
+        final Map<Integer, BookResponse> books = this.entries.getAll(bookIds, this::loadEntries);
+        final List<BookResponse> content = bookIds.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .toList();
+        final int totalPages = (int) ((totalElements + size - 1) / size);
+
+        return Optional.of(new PageResponse<>(
+                content,
+                page,
+                size,
+                totalElements,
+                totalPages,
+                page == 0,
+                page + 1 >= totalPages
+        ));
+    }
+
+    public void evict(final Integer bookId) {
+        afterCommit(() -> this.entries.invalidate(bookId));
+    }
+
+    public void evictCatalog() {
+        afterCommit(() -> this.catalogs.invalidate(DISPLAYABLE_CATALOG));
+    }
+
+    public void evictCatalog(final Integer bookId) {
+        afterCommit(() -> {
+            this.entries.invalidate(bookId);
+            this.catalogs.invalidate(DISPLAYABLE_CATALOG);
+        });
+    }
+
+    public void evictAll() {
+        afterCommit(() -> {
+            this.entries.invalidateAll();
+            this.catalogs.invalidateAll();
+        });
+    }
+
+    private Catalog loadCatalog() {
+        final List<CatalogEntry> rows = this.bookRepository.findDisplayableCatalog(Limit.of(this.maximumCatalogSize + 1));
+        if (rows.size() > this.maximumCatalogSize) {
+            log.warn("Displayable catalog exceeds {} books, serving pages from the database", this.maximumCatalogSize);
+            return new Catalog(new int[0], Map.of(), false);
+        }
+        final int[] bookIds = new int[rows.size()];
+        final Map<Integer, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            bookIds[i] = rows.get(i).id();
+            positions.computeIfAbsent(rows.get(i).ownerId(), ownerId -> new ArrayList<>()).add(i);
+        }
+        final Map<Integer, int[]> ownerPositions = positions.entrySet().stream()
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        entry -> entry.getValue().stream().mapToInt(Integer::intValue).toArray()));
+        return new Catalog(bookIds, ownerPositions, true);
+    }
+
+    private Map<Integer, BookResponse> loadEntries(final Set<? extends Integer> bookIds) {
+        return this.bookRepository.findSummariesByIdIn(List.copyOf(bookIds)).stream()
+                .collect(Collectors.toMap(BookSummary::id, this.bookMapper::toBookResponse));
+    }
+
+    private void afterCommit(final Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private record Catalog(int[] bookIds, Map<Integer, int[]> ownerPositions, boolean complete) {
+
+        List<Integer> slice(final int offset, final int size, final int[] ownPositions) {
+            int position = offset;
+            int own = 0;
+            while (own < ownPositions.length && ownPositions[own] <= position) {
+                own++;
+                position++;
+            }
+            final List<Integer> slice = new ArrayList<>(size);
+            while (position < this.bookIds.length && slice.size() < size) {
+                if (own < ownPositions.length && ownPositions[own] == position) {
+                    own++;
+                } else {
+                    slice.add(this.bookIds[position]);
+                }
+                position++;
+            }
+            return slice;
+        }
+    }
+}
@@ -1,18 +1,37 @@
 package com.osama.book.book;
 
+import com.osama.book.book.request.BookBatchRequest;
 import com.osama.book.book.request.BookRequest;
+import com.osama.book.book.response.BookBatchResponse;
+import com.osama.book.book.response.BookImportResponse;
 import com.osama.book.book.response.BookResponse;
 import com.osama.book.book.response.BorrowedBookResponse;
+import com.osama.book.common.CursorPageResponse;
 import com.osama.book.common.PageResponse;
+import com.osama.book.cover.CoverJobResponse;
+import com.osama.book.cover.CoverRendition;
+import com.osama.book.file.FileStreamingService;
+import com.osama.book.reservation.ReservationResponse;
+import com.osama.book.reservation.ReservationService;
+import com.osama.book.trending.TrendingWindow;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.query.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("books")
@@ -21,6 +40,11 @@ import org.springframework.web.multipart.MultipartFile;
 public class BookController {
 
     private final BookService bookService;
+    private final FileStreamingService fileStreamingService;
+    private final BookImportService bookImportService;
+    private final BookExportService bookExportService;
+    private final BookLoanBatchService bookLoanBatchService;
+    private final ReservationService reservationService;
 
     @PostMapping
     public ResponseEntity<Integer> saveBook(
@@ -31,11 +55,56 @@ public class BookController {
         return ResponseEntity.ok(this.bookService.save(request, connectedUser));
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BookImportResponse> importBooks(
+            HttpServletRequest request,
+            Authentication connectedUser) throws IOException {
+        return ResponseEntity.ok(this.bookImportService.importBooks(
+                request.getInputStream(),
+                MediaType.parseMediaType(request.getContentType()),
+                connectedUser));
+    }
+
     @GetMapping("/{book_id}")
     public ResponseEntity<BookResponse> findById(@PathVariable Integer book_id) {
         return ResponseEntity.ok(this.bookService.findById(book_id));
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<BookResponse>> search(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.bookService.search(query, size, connectedUser));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<BookResponse>> findTrending(
+            @RequestParam(name = "window", defaultValue = "24h", required = false) String window,
+            @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.bookService.findTrending(TrendingWindow.fromLabel(window), size, connectedUser));
+    }
+
+    @GetMapping("/{book-id}/related")
+    public ResponseEntity<List<BookResponse>> findRelated(
+            @PathVariable("book-id") Integer bookId,
+            @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.bookService.findRelated(bookId, size, connectedUser));
+    }
+
+    @GetMapping("/{book-id}/cover")
+    public void findBookCover(
+            @PathVariable("book-id") Integer bookId,
+            @RequestParam(name = "size", defaultValue = "full", required = false) String size,
+            @RequestParam(name = "v", required = false) String version,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        final BookCover cover = this.bookService.findBookCover(bookId, CoverRendition.fromName(size));
+        this.fileStreamingService.stream(cover.path(), version != null && version.equals(cover.version()), request, response);
+    }
+
     @GetMapping
     public ResponseEntity<PageResponse<BookResponse>> findAll(
             @RequestParam(name = "page", defaultValue = "0", required = false) int page,
@@ -52,6 +121,14 @@ public class BookController {
         return ResponseEntity.ok(this.bookService.findAllBooksByOwner(page, size, connectedUser));
     }
 
+    @GetMapping(value = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOwnerBooks(Authentication connectedUser, HttpServletRequest request) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.ndjson\"")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(this.bookExportService.exportOwnerBooks(connectedUser, request));
+    }
+
     @GetMapping("/borrowed")
     public ResponseEntity<PageResponse<BorrowedBookResponse>> findAllBorrowedBooks(
             @RequestParam(name = "page", defaultValue = "0", required = false) int page,
@@ -60,7 +137,15 @@ public class BookController {
         return ResponseEntity.ok(this.bookService.findAllBorrowedBooks(page, size, connectedUser));
     }
 
-    @GetMapping("/borrowed")
+    @GetMapping(value = "/borrowed/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBorrowedBooks(Authentication connectedUser, HttpServletRequest request) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"borrowed-books.ndjson\"")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(this.bookExportService.exportBorrowedBooks(connectedUser, request));
+    }
+
+    @GetMapping("/returned")
     public ResponseEntity<PageResponse<BorrowedBookResponse>> findAllReturnedBooks(
             @RequestParam(name = "page", defaultValue = "0", required = false) int page,
             @RequestParam(name = "size", defaultValue = "10", required = false) int size,
@@ -68,6 +153,38 @@ public class BookController {
         return ResponseEntity.ok(this.bookService.findAllReturnedBooks(page, size, connectedUser));
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<BookResponse>> findAllByCursor(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.bookService.findAllByCursor(cursor, size, connectedUser));
+    }
+
+    @GetMapping("/owner/cursor")
+    public ResponseEntity<CursorPageResponse<BookResponse>> findAllBooksByOwnerByCursor(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.bookService.findAllBooksByOwnerByCursor(cursor, size, connectedUser));
+    }
+
+    @GetMapping("/borrowed/cursor")
+    public ResponseEntity<CursorPageResponse<BorrowedBookResponse>> findAllBorrowedBooksByCursor(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.bookService.findAllBorrowedBooksByCursor(cursor, size, connectedUser));
+    }
+
+    @GetMapping("/returned/cursor")
+    public ResponseEntity<CursorPageResponse<BorrowedBookResponse>> findAllReturnedBooksByCursor(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.bookService.findAllReturnedBooksByCursor(cursor, size, connectedUser));
+    }
+
     @PatchMapping("/shareable/{book-id}")
     public ResponseEntity<Integer> updateShareableStatus(
             @PathVariable("book-id") Integer bookId,
@@ -89,6 +206,13 @@ public class BookController {
         return ResponseEntity.ok(this.bookService.borrowBook(bookId, connectedUser));
     }
 
+    @PostMapping("/{book-id}/reserve")
+    public ResponseEntity<ReservationResponse> reserveBook(
+            @PathVariable("book-id") Integer bookId,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.reservationService.reserve(bookId, connectedUser));
+    }
+
     @PatchMapping("/borrow/return/{book-id}")
     public ResponseEntity<Integer> borrowedReturn(
             @PathVariable("book-id") Integer bookId,
@@ -103,13 +227,44 @@ public class BookController {
         return ResponseEntity.ok(this.bookService.approveReturnBorrowedBook(bookId, connectedUser));
     }
 
+    @PostMapping("/borrow/batch")
+    public ResponseEntity<BookBatchResponse> borrowBooks(
+            @Valid @RequestBody BookBatchRequest request,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.bookLoanBatchService.borrowBooks(request.bookIds(), connectedUser));
+    }
+
+    @PatchMapping("/borrow/return/batch")
+    public ResponseEntity<BookBatchResponse> returnBorrowedBooks(
+            @Valid @RequestBody BookBatchRequest request,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.bookLoanBatchService.returnBorrowedBooks(request.bookIds(), connectedUser));
+    }
+
+    @PatchMapping("/borrow/return/approve/batch")
+    public ResponseEntity<BookBatchResponse> approveReturnedBooks(
+            @Valid @RequestBody BookBatchRequest request,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.bookLoanBatchService.approveReturnedBooks(request.bookIds(), connectedUser));
+    }
+
     @PostMapping(value = "/cover/{book-id}", consumes = "multipart/form-data")
-    public ResponseEntity<?> uploadBookCoverPicture(
+    public ResponseEntity<CoverJobResponse> uploadBookCoverPicture(
             @PathVariable("book-id") Integer bookId,
             @Parameter()
             @RequestPart("file") MultipartFile file,
             Authentication connectedUser) {
-        this.bookService.uploadBookCoverPicture(file, connectedUser, bookId);
-        return ResponseEntity.accepted().build();
+        final CoverJobResponse job = this.bookService.uploadBookCoverPicture(file, connectedUser, bookId);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/books/cover/jobs/{job-id}")
+                        .buildAndExpand(job.getId())
+                        .toUri())
+                .body(job);
+    }
+
+    @GetMapping("/cover/jobs/{job-id}")
+    public ResponseEntity<CoverJobResponse> findCoverJob(@PathVariable("job-id") Integer jobId) {
+        return ResponseEntity.ok(this.bookService.findCoverJob(jobId));
     }
 }
@@ -0,0 +1,5 @@
+package com.osama.book.book;
+
+import java.nio.file.Path;
+
+public record BookCover(Path path, String version) {}
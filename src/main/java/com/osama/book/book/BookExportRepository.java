@@ -0,0 +1,61 @@
+package com.osama.book.book;
+
+import com.osama.book.history.BorrowedBookSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public class BookExportRepository {
+
+    private final EntityManager entityManager;
+    private final int fetchSize;
+
+    public BookExportRepository(
+            final EntityManager entityManager,
+            @Value("${application.export.fetch-size}") final int fetchSize) {
+        this.entityManager = entityManager;
+        this.fetchSize = fetchSize;
+    }
+
+    public Stream<BookSummary> streamBooksByOwner(final Integer ownerId) {
+        return stream(this.entityManager.createQuery("""
+                        SELECT new com.osama.book.book.BookSummary(
+                            b.id, b.title, b.authorName, b.isbn, b.synopsis,
+                            CONCAT(owner.firstName, ' ', owner.lastName),
+                            b.bookCover, b.rate, b.archived, b.shareable, b.createdDate)
+                        FROM Book b
+                        JOIN b.owner owner
+                        WHERE owner.id = :ownerId
+                        ORDER BY b.id
+                        """, BookSummary.class)
+                .setParameter("ownerId", ownerId));
+    }
+
+    public Stream<BorrowedBookSummary> streamBorrowedBooks(final Integer userId) {
+        return stream(this.entityManager.createQuery("""
+                        SELECT new com.osama.book.history.BorrowedBookSummary(
+                            history.id, history.createdDate,
+                            book.id, book.title, book.authorName, book.isbn, book.rate,
+                            history.returned, history.returnedApprove, history.dueDate)
+                        FROM TransactionHistoryEntry history
+                        JOIN history.book book
+                        WHERE history.user.id = :userId
+                        ORDER BY history.id
+                        """, BorrowedBookSummary.class)
+                .setParameter("userId", userId));
+    }
+
+    private <T> Stream<T> stream(final TypedQuery<T> query) {
+        return query
+                .setHint(HINT_FETCH_SIZE, this.fetchSize)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,116 @@
+package com.osama.book.book;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.osama.book.book.response.BookResponse;
+import com.osama.book.book.response.BorrowedBookResponse;
+import com.osama.book.exception.TooManyExportsException;
+import com.osama.book.user.User;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Service
+public class BookExportService {
+
+    private final BookExportRepository bookExportRepository;
+    private final BookMapper bookMapper;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final Duration requestTimeout;
+    private final Semaphore exportPermits;
+
+    public BookExportService(
+            final BookExportRepository bookExportRepository,
+            final BookMapper bookMapper,
+            final ObjectMapper objectMapper,
+            final PlatformTransactionManager transactionManager,
+            @Value("${application.export.request-timeout}") final Duration requestTimeout,
+            @Value("${application.export.max-concurrent-exports}") final int maxConcurrentExports) {
+        this.bookExportRepository = bookExportRepository;
+        this.bookMapper = bookMapper;
+        this.objectMapper = objectMapper;
+        this.transactionManager = transactionManager;
+        this.requestTimeout = requestTimeout;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+    }
+
+    public StreamingResponseBody exportOwnerBooks(final Authentication connectedUser, final HttpServletRequest request) {
+        final User user = (User) connectedUser.getPrincipal();
+        return export(
+                request,
+                () -> this.bookExportRepository.streamBooksByOwner(user.getId()),
+                this.bookMapper::toBookResponse,
+                this.objectMapper.writerFor(BookResponse.class));
+    }
+
+    public StreamingResponseBody exportBorrowedBooks(final Authentication connectedUser, final HttpServletRequest request) {
+        final User user = (User) connectedUser.getPrincipal();
+        return export(
+                request,
+                () -> this.bookExportRepository.streamBorrowedBooks(user.getId()),
+                this.bookMapper::toBorrowedBookResponse,
+                this.objectMapper.writerFor(BorrowedBookResponse.class));
+    }
+
+    private <E, R> StreamingResponseBody export(
+            final HttpServletRequest request,
+            final Supplier<Stream<E>> rows,
+            final Function<E, R> mapper,
+            final ObjectWriter writer) {
+        if (!this.exportPermits.tryAcquire()) {
+            throw new TooManyExportsException("Too many exports in progress, please retry later");
+        }
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(this.requestTimeout.toMillis());
+        return output -> {
+            try {
+                writeRows(output, rows, mapper, writer);
+            } finally {
+                this.exportPermits.release();
+            }
+        };
+    }
+
+    private <E, R> void writeRows(
+            final OutputStream output,
+            final Supplier<Stream<E>> rows,
+            final Function<E, R> mapper,
+            final ObjectWriter writer) throws IOException {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+        transactionTemplate.setReadOnly(true);
+        try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(output)) {
+            generator.setRootValueSeparator(null);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<E> stream = rows.get()) {
+                    stream.forEach(row -> write(generator, writer, mapper.apply(row)));
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void write(final JsonGenerator generator, final ObjectWriter writer, final Object value) {
+        try {
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.osama.book.book;
+
+import com.osama.book.book.response.BookImportError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class BookImportErrors {
+
+    private final int maxReported;
+    private final List<BookImportError> reported = new ArrayList<>();
+    private int rejected;
+
+    BookImportErrors(final int maxReported) {
+        this.maxReported = maxReported;
+    }
+
+    void add(final long line, final List<String> messages) {
+        this.rejected++;
+        if (this.reported.size() < this.maxReported) {
+            this.reported.add(new BookImportError(line, messages));
+        }
+    }
+
+    int rejected() {
+        return this.rejected;
+    }
+
+    int unreported() {
+        return this.rejected - this.reported.size();
+    }
+
+    List<BookImportError> reported() {
+        return this.reported;
+    }
+}
@@ -0,0 +1,161 @@
+package com.osama.book.book;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.osama.book.book.request.BookRequest;
+import com.osama.book.exception.InvalidImportFileException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class BookImportReader implements Closeable {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("title", "authorName", "isbn", "synopsis");
+    private static final String SHAREABLE_COLUMN = "shareable";
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Integer> columns;
+    private long lineNumber;
+    private long recordLine;
+
+    private BookImportReader(final BufferedReader reader, final ObjectMapper objectMapper, final boolean csv) throws IOException {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+        this.columns = csv ? readHeader() : null;
+    }
+
+    static BookImportReader csv(final BufferedReader reader) throws IOException {
+        return new BookImportReader(reader, null, true);
+    }
+
+    static BookImportReader ndjson(final BufferedReader reader, final ObjectMapper objectMapper) throws IOException {
+        return new BookImportReader(reader, objectMapper, false);
+    }
+
+    BookImportRow next() throws IOException {
+        return this.columns != null ? nextCsvRow() : nextJsonRow();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private BookImportRow nextJsonRow() throws IOException {
+        String line;
+        do {
+            line = this.reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            this.lineNumber++;
+        } while (line.isBlank());
+        try {
+            return BookImportRow.valid(this.lineNumber, this.objectMapper.readValue(line, BookRequest.class));
+        } catch (JsonProcessingException e) {
+            return BookImportRow.invalid(this.lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private BookImportRow nextCsvRow() throws IOException {
+        List<String> fields;
+        do {
+            fields = readCsvRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+        final long line = this.recordLine;
+        if (fields.size() != this.columns.size()) {
+            return BookImportRow.invalid(line, "Expected " + this.columns.size() + " columns but found " + fields.size());
+        }
+        final String shareable = field(fields, SHAREABLE_COLUMN);
+        if (StringUtils.isNotBlank(shareable)
+                && !"true".equalsIgnoreCase(shareable.strip())
+                && !"false".equalsIgnoreCase(shareable.strip())) {
+            return BookImportRow.invalid(line, "shareable must be true or false");
+        }
+        return BookImportRow.valid(line, BookRequest.builder()
+                .title(field(fields, "title"))
+                .authorName(field(fields, "authorName"))
+                .isbn(field(fields, "isbn"))
+                .synopsis(field(fields, "synopsis"))
+                .shareable(Boolean.parseBoolean(StringUtils.strip(shareable)))
+                .build());
+    }
+
+    private String field(final List<String> fields, final String column) {
+        final Integer index = this.columns.get(column);
+        return index == null ? null : fields.get(index);
+    }
+
+    private Map<String, Integer> readHeader() throws IOException {
+        final List<String> header = readCsvRecord();
+        if (header == null) {
+            throw new InvalidImportFileException("The import file is empty");
+        }
+        final Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(StringUtils.removeStart(header.get(i), "\uFEFF").strip(), i);
+        }
+        final List<String> missing = REQUIRED_COLUMNS.stream()
+                .filter(column -> !columns.containsKey(column))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportFileException("Missing CSV columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private List<String> readCsvRecord() throws IOException {
+        String line = this.reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        this.lineNumber++;
+        this.recordLine = this.lineNumber;
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                final char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            line = this.reader.readLine();
+            if (line == null) {
+                throw new InvalidImportFileException("Unterminated quoted field starting at line " + this.recordLine);
+            }
+            this.lineNumber++;
+            field.append('\n');
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,14 @@
+package com.osama.book.book;
+
+import com.osama.book.book.request.BookRequest;
+
+record BookImportRow(long line, BookRequest request, String error) {
+
+    static BookImportRow valid(final long line, final BookRequest request) {
+        return new BookImportRow(line, request, null);
+    }
+
+    static BookImportRow invalid(final long line, final String error) {
+        return new BookImportRow(line, null, error);
+    }
+}
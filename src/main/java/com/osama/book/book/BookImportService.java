@@ -0,0 +1,163 @@
+package com.osama.book.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.osama.book.book.request.BookRequest;
+import com.osama.book.book.response.BookImportResponse;
+import com.osama.book.exception.InvalidImportFileException;
+import com.osama.book.search.BookSearchIndex;
+import com.osama.book.user.User;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookImportService {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final String INSERT_BOOK = """
+            INSERT INTO book (title, author_name, isbn, synopsis, archived, shareable,
+                rate_sum, rate_count, rate, version, owner_id, created_date, created_by)
+            VALUES (?, ?, ?, ?, false, ?, 0, 0, 0, 0, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookCatalogCache bookCatalogCache;
+
+    @Value("${application.book-import.batch-size}")
+    private int batchSize;
+
+    @Value("${application.book-import.max-reported-errors}")
+    private int maxReportedErrors;
+
+    public BookImportResponse importBooks(
+            final InputStream input,
+            final MediaType contentType,
+            final Authentication connectedUser) throws IOException {
+        final User user = (User) connectedUser.getPrincipal();
+        final int lastId = this.bookRepository.findMaxId();
+        final List<BookImportRow> batch = new ArrayList<>(this.batchSize);
+        final BookImportErrors errors = new BookImportErrors(this.maxReportedErrors);
+        int imported = 0;
+
+        try (BookImportReader reader = openReader(input, contentType)) {
+            BookImportRow row;
+            while ((row = reader.next()) != null) {
+                if (row.error() != null) {
+                    errors.add(row.line(), List.of(row.error()));
+                    continue;
+                }
+                final Set<ConstraintViolation<BookRequest>> violations = this.validator.validate(row.request());
+                if (!violations.isEmpty()) {
+                    errors.add(row.line(), violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .toList());
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == this.batchSize) {
+                    imported += flush(batch, user, errors);
+                }
+            }
+            imported += flush(batch, user, errors);
+        } finally {
+            if (imported > 0) {
+                this.bookSearchIndex.indexBooksAfter(lastId);
+                this.bookCatalogCache.evictCatalog();
+            }
+        }
+        log.info("Imported {} books for user {}, rejected {} rows", imported, user.getId(), errors.rejected());
+
+        return new BookImportResponse(imported, errors.rejected(), errors.unreported(), errors.reported());
+    }
+
+    private BookImportReader openReader(final InputStream input, final MediaType contentType) throws IOException {
+        final Charset charset = Optional.ofNullable(contentType.getCharset()).orElse(StandardCharsets.UTF_8);
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset));
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            return BookImportReader.csv(reader);
+        }
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return BookImportReader.ndjson(reader, this.objectMapper);
+        }
+        throw new InvalidImportFileException("Unsupported import format: " + contentType);
+    }
+
+    private int flush(final List<BookImportRow> batch, final User user, final BookImportErrors errors) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        final LocalDateTime now = LocalDateTime.now();
+        int inserted;
+        try {
+            insert(batch, user, now);
+            inserted = batch.size();
+        } catch (DataAccessException e) {
+            log.warn("Import batch rejected, retrying its {} rows one by one", batch.size());
+            inserted = 0;
+            for (BookImportRow row : batch) {
+                try {
+                    insert(List.of(row), user, now);
+                    inserted++;
+                } catch (DataAccessException rowException) {
+                    errors.add(row.line(), List.of(
+                            StringUtils.substringBefore(rowException.getMostSpecificCause().getMessage(), "\n")));
+                }
+            }
+        }
+        batch.clear();
+        return inserted;
+    }
+
+    private void insert(final List<BookImportRow> rows, final User user, final LocalDateTime createdDate) {
+        this.transactionTemplate.executeWithoutResult(status ->
+                this.jdbcTemplate.batchUpdate(INSERT_BOOK, rows, this.batchSize,
+                        (PreparedStatement ps, BookImportRow row) -> bind(ps, row, user, createdDate)));
+    }
+
+    private void bind(
+            final PreparedStatement ps,
+            final BookImportRow row,
+            final User user,
+            final LocalDateTime createdDate) throws SQLException {
+        ps.setString(1, row.request().title());
+        ps.setString(2, row.request().authorName());
+        ps.setString(3, row.request().isbn());
+        ps.setString(4, row.request().synopsis());
+        ps.setBoolean(5, row.request().shareable());
+        ps.setInt(6, user.getId());
+        ps.setTimestamp(7, Timestamp.valueOf(createdDate));
+        ps.setInt(8, user.getId());
+    }
+}
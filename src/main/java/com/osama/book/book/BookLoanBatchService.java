@@ -0,0 +1,215 @@
+package com.osama.book.book;
+
+import com.osama.book.book.response.BookBatchItem;
+import com.osama.book.book.response.BookBatchResponse;
+import com.osama.book.exception.OperationNotPermittedException;
+import com.osama.book.history.BookTransactionRepository;
+import com.osama.book.history.TransactionHistory;
+import com.osama.book.outbox.DomainEventType;
+import com.osama.book.outbox.OutboxEventPublisher;
+import com.osama.book.reservation.ReservationService;
+import com.osama.book.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BookLoanBatchService {
+
+    private static final int MAX_BORROW_ATTEMPTS = 3;
+    private static final int LOCKED_CHUNK_SIZE = 16;
+
+    private final BookRepository bookRepository;
+    private final BookTransactionRepository transactionRepository;
+    private final BookLockManager bookLockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxEventPublisher outboxEventPublisher;
+    private final ReservationService reservationService;
+
+    @Value("${application.loan.duration}")
+    private Duration loanDuration;
+
+    public BookBatchResponse borrowBooks(final List<Integer> bookIds, final Authentication connectedUser) {
+        final User user = (User) connectedUser.getPrincipal();
+        return inChunks(bookIds, chunk -> {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return this.bookLockManager.withLocks(chunk, () ->
+                            this.transactionTemplate.execute(status -> borrow(chunk, user)));
+                } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                    if (attempt == MAX_BORROW_ATTEMPTS) {
+                        throw new OperationNotPermittedException("The requested books are being borrowed by someone else, please retry");
+                    }
+                }
+            }
+        });
+    }
+
+    public BookBatchResponse returnBorrowedBooks(final List<Integer> bookIds, final Authentication connectedUser) {
+        final User user = (User) connectedUser.getPrincipal();
+        return inChunks(bookIds, chunk -> this.bookLockManager.withLocks(chunk, () ->
+                this.transactionTemplate.execute(status -> returnBooks(chunk, user))));
+    }
+
+    public BookBatchResponse approveReturnedBooks(final List<Integer> bookIds, final Authentication connectedUser) {
+        final User user = (User) connectedUser.getPrincipal();
+        return inChunks(bookIds, chunk -> this.bookLockManager.withLocks(chunk, () ->
+                this.transactionTemplate.execute(status -> approveReturns(chunk, user))));
+    }
+
+    private BookBatchResponse inChunks(final List<Integer> bookIds, final Function<Set<Integer>, List<BookBatchItem>> action) {
+        final List<Integer> uniqueBookIds = List.copyOf(new LinkedHashSet<>(bookIds));
+        final List<BookBatchItem> items = new ArrayList<>();
+        for (int from = 0; from < uniqueBookIds.size(); from += LOCKED_CHUNK_SIZE) {
+            final Set<Integer> chunk = new LinkedHashSet<>(
+                    uniqueBookIds.subList(from, Math.min(from + LOCKED_CHUNK_SIZE, uniqueBookIds.size())));
+            try {
+                items.addAll(action.apply(chunk));
+            } catch (OperationNotPermittedException e) {
+                chunk.forEach(bookId -> items.add(BookBatchItem.builder()
+                        .bookId(bookId)
+                        .error(e.getMessage())
+                        .build()));
+            }
+        }
+        return toResponse(items);
+    }
+
+    private List<BookBatchItem> borrow(final Set<Integer> bookIds, final User user) {
+        final Map<Integer, Book> books = this.bookRepository.findAllForBorrow(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        final Set<Integer> borrowedBookIds = this.transactionRepository.findBorrowedBookIds(bookIds);
+        final List<BookBatchItem> items = new ArrayList<>();
+        final List<TransactionHistory> loans = new ArrayList<>();
+        for (Integer bookId : bookIds) {
+            final Book book = books.get(bookId);
+            final String error;
+            if (book == null) {
+                error = "Book not found with id: " + bookId;
+            } else if (book.isArchived() || !book.isShareable()) {
+                error = "You can't borrow this book since it's archived or not shareable";
+            } else if (Objects.equals(book.getOwner().getId(), user.getId())) {
+                error = "You can't borrow you own book";
+            } else if (borrowedBookIds.contains(bookId)) {
+                error = "The requested book is already borrowed";
+            } else {
+                error = this.reservationService.tryClaimHold(bookId, user.getId()).orElse(null);
+                if (error == null) {
+                    loans.add(TransactionHistory.builder()
+                            .book(book)
+                            .user(user)
+                            .returned(false)
+                            .returnedApprove(false)
+                            .activeBookId(bookId)
+                            .ownerId(book.getOwner().getId())
+                            .dueDate(LocalDateTime.now().plus(this.loanDuration))
+                            .build());
+                }
+            }
+            items.add(BookBatchItem.builder()
+                    .bookId(bookId)
+                    .error(error)
+                    .build());
+        }
+        final Map<Integer, Integer> transactionIds = this.transactionRepository.saveAllAndFlush(loans).stream()
+                .collect(Collectors.toMap(loan -> loan.getBook().getId(), TransactionHistory::getId));
+        items.forEach(item -> item.setTransactionId(transactionIds.get(item.getBookId())));
+        transactionIds.forEach((bookId, transactionId) ->
+                this.outboxEventPublisher.publish(DomainEventType.BOOK_BORROWED, bookId, user.getId(), transactionId));
+        return items;
+    }
+
+    private List<BookBatchItem> returnBooks(final Set<Integer> bookIds, final User user) {
+        final Map<Integer, Book> books = this.bookRepository.findAllWithOwnerByIdIn(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        final Map<Integer, TransactionHistory> loans = this.transactionRepository.findAllByBookIdInAndUserId(bookIds, user.getId()).stream()
+                .collect(Collectors.toMap(loan -> loan.getBook().getId(), Function.identity()));
+        final List<BookBatchItem> items = new ArrayList<>();
+        for (Integer bookId : bookIds) {
+            final Book book = books.get(bookId);
+            final TransactionHistory loan = loans.get(bookId);
+            final String error;
+            if (book == null) {
+                error = "Book not found with id: " + bookId;
+            } else if (book.isArchived() || !book.isShareable()) {
+                error = "You can't borrow or return this book since it's archived or not shareable";
+            } else if (Objects.equals(book.getOwner().getId(), user.getId())) {
+                error = "You can't borrow or return you own book";
+            } else if (loan == null) {
+                error = "You can't return book that you didn't borrowed";
+            } else {
+                error = null;
+                loan.setReturned(true);
+                loan.setReturnedDate(LocalDateTime.now());
+                this.outboxEventPublisher.publish(DomainEventType.BOOK_RETURNED, bookId, user.getId(), loan.getId());
+            }
+            items.add(BookBatchItem.builder()
+                    .bookId(bookId)
+                    .transactionId(error == null ? loan.getId() : null)
+                    .error(error)
+                    .build());
+        }
+        return items;
+    }
+
+    private List<BookBatchItem> approveReturns(final Set<Integer> bookIds, final User user) {
+        final Map<Integer, Book> books = this.bookRepository.findAllWithOwnerByIdIn(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        final Map<Integer, TransactionHistory> loans = this.transactionRepository.findAllByBookIdInAndOwnerId(bookIds, user.getId()).stream()
+                .collect(Collectors.toMap(loan -> loan.getBook().getId(), Function.identity()));
+        final List<BookBatchItem> items = new ArrayList<>();
+        for (Integer bookId : bookIds) {
+            final Book book = books.get(bookId);
+            final TransactionHistory loan = loans.get(bookId);
+            final String error;
+            if (book == null) {
+                error = "Book not found with id: " + bookId;
+            } else if (book.isArchived() || !book.isShareable()) {
+                error = "You can't approve this book since it's archived or not shareable";
+            } else if (!Objects.equals(book.getOwner().getId(), user.getId())) {
+                error = "You only can approve you own books";
+            } else if (loan == null) {
+                error = "The book is not returned yet to be approved";
+            } else {
+                error = null;
+                loan.setReturnedApprove(true);
+                loan.setApprovedDate(LocalDateTime.now());
+                loan.setActiveBookId(null);
+                this.outboxEventPublisher.publish(DomainEventType.RETURN_APPROVED, bookId, loan.getUser().getId(), loan.getId());
+            }
+            items.add(BookBatchItem.builder()
+                    .bookId(bookId)
+                    .transactionId(error == null ? loan.getId() : null)
+                    .error(error)
+                    .build());
+        }
+        return items;
+    }
+
+    private BookBatchResponse toResponse(final List<BookBatchItem> items) {
+        final int failed = (int) items.stream()
+                .filter(item -> item.getError() != null)
+                .count();
+        return BookBatchResponse.builder()
+                .succeeded(items.size() - failed)
+                .failed(failed)
+                .items(items)
+                .build();
+    }
+}
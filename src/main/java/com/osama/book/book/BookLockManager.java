@@ -0,0 +1,92 @@
+package com.osama.book.book;
+
+import com.osama.book.exception.OperationNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+public class BookLockManager {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private final long timeoutNanos;
+    private final Timer acquiredTimer;
+    private final Timer timedOutTimer;
+
+    public BookLockManager(
+            final MeterRegistry meterRegistry,
+            @Value("${application.book-lock.stripes}") final int stripes,
+            @Value("${application.book-lock.timeout}") final Duration timeout) {
+        final int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutNanos = timeout.toNanos();
+        this.acquiredTimer = Timer.builder("book.lock.wait")
+                .tag("outcome", "acquired")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.timedOutTimer = Timer.builder("book.lock.wait")
+                .tag("outcome", "timeout")
+                .register(meterRegistry);
+    }
+
+    public <T> T withLock(final Integer bookId, final Supplier<T> action) {
+        final ReentrantLock lock = this.locks[stripe(bookId)];
+        acquire(lock);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T withLocks(final Collection<Integer> bookIds, final Supplier<T> action) {
+        final int[] stripes = bookIds.stream()
+                .mapToInt(this::stripe)
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                acquire(this.locks[stripe]);
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                this.locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    private void acquire(final ReentrantLock lock) {
+        final long startedAt = System.nanoTime();
+        try {
+            if (lock.tryLock(this.timeoutNanos, TimeUnit.NANOSECONDS)) {
+                this.acquiredTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.timedOutTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        throw new OperationNotPermittedException("The book is busy, please retry later");
+    }
+
+    private int stripe(final Integer bookId) {
+        final int hash = bookId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+}
@@ -3,16 +3,18 @@ package com.osama.book.book;
 import com.osama.book.book.request.BookRequest;
 import com.osama.book.book.response.BookResponse;
 import com.osama.book.book.response.BorrowedBookResponse;
-import com.osama.book.file.FileUtil;
-import com.osama.book.history.TransactionHistory;
+import com.osama.book.cover.CoverRendition;
+import com.osama.book.history.BorrowedBookSummary;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Locale;
+
 @Service
 public class BookMapper {
 
     public Book toBook(final BookRequest request) {
         return Book.builder()
-                .id(request.id())
                 .title(request.title())
                 .authorName(request.authorName())
                 .isbn(request.isbn())
@@ -22,30 +24,52 @@ public class BookMapper {
                 .build();
     }
 
-    public BookResponse toBookResponse(final Book book) {
+    public void updateBook(final Book book, final BookRequest request) {
+        book.setTitle(request.title());
+        book.setAuthorName(request.authorName());
+        book.setIsbn(request.isbn());
+        book.setSynopsis(request.synopsis());
+        book.setShareable(request.shareable());
+    }
+
+    public BookResponse toBookResponse(final BookSummary book) {
         return BookResponse.builder()
-                .id(book.getId())
-                .title(book.getTitle())
-                .authorName(book.getAuthorName())
-                .isbn(book.getIsbn())
-                .synopsis(book.getSynopsis())
-                .owner(book.getOwner().fullName())
-                .rate(book.getRate())
-                .archived(book.isArchived())
-                .sharable(book.isShareable())
-                .cover(FileUtil.readFileFromLocation(book.getBookCover()))
+                .id(book.id())
+                .title(book.title())
+                .authorName(book.authorName())
+                .isbn(book.isbn())
+                .synopsis(book.synopsis())
+                .owner(book.owner())
+                .rate(book.rate())
+                .archived(book.archived())
+                .sharable(book.shareable())
+                .coverUrl(toCoverUrl(book.id(), book.bookCover(), CoverRendition.THUMBNAIL))
                 .build();
     }
 
-    public BorrowedBookResponse toBorrowedBookResponse(final TransactionHistory history) {
+    public String toCoverUrl(final Integer bookId, final String bookCover, final CoverRendition rendition) {
+        if (bookCover == null) {
+            return null;
+        }
+        return "/books/" + bookId + "/cover?size=" + rendition.name().toLowerCase(Locale.ROOT)
+                + "&v=" + toCoverVersion(bookCover);
+    }
+
+    public String toCoverVersion(final String bookCover) {
+        return bookCover == null ? null : Integer.toHexString(bookCover.hashCode());
+    }
+
+    public BorrowedBookResponse toBorrowedBookResponse(final BorrowedBookSummary history) {
         return BorrowedBookResponse.builder()
-                .id(history.getBook().getId())
-                .title(history.getBook().getTitle())
-                .authorName(history.getBook().getAuthorName())
-                .isbn(history.getBook().getIsbn())
-                .rate(history.getBook().getRate())
-                .returned(history.isReturned())
-                .returnedApproved(history.isReturnedApprove())
+                .id(history.bookId())
+                .title(history.title())
+                .authorName(history.authorName())
+                .isbn(history.isbn())
+                .rate(history.rate())
+                .returned(history.returned())
+                .returnedApproved(history.returnedApprove())
+                .dueDate(history.dueDate())
+                .overdue(!history.returned() && history.dueDate() != null && history.dueDate().isBefore(LocalDateTime.now()))
                 .build();
     }
 }
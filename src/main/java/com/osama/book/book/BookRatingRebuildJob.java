@@ -0,0 +1,29 @@
+package com.osama.book.book;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "application.rating.rebuild-on-startup", havingValue = "true")
+public class BookRatingRebuildJob implements CommandLineRunner {
+
+    private final BookRatingService bookRatingService;
+
+    @Override
+    public void run(String... args) {
+        this.bookRatingService.rebuildAll();
+        final List<Integer> inconsistentBooks = this.bookRatingService.findInconsistentBooks();
+        if (inconsistentBooks.isEmpty()) {
+            log.info("Rating aggregates are consistent with feedbacks");
+        } else {
+            log.warn("Rating aggregates are inconsistent for books {}", inconsistentBooks);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.osama.book.book;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookRatingService {
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BookCatalogCache bookCatalogCache;
+
+    @Value("${application.rating.batch-size}")
+    private int batchSize;
+
+    public int rebuildAll() {
+        final int maxId = this.bookRepository.findMaxId();
+        int updated = 0;
+        for (int fromId = 1; fromId <= maxId; fromId += batchSize) {
+            final int toId = fromId + batchSize - 1;
+            final int from = fromId;
+            updated += this.transactionTemplate.execute(status -> {
+                int count = this.bookRepository.rebuildRateAggregates(from, toId);
+                this.bookRepository.rebuildRates(from, toId);
+                return count;
+            });
+        }
+        this.bookCatalogCache.evictAll();
+        log.info("Rebuilt rating aggregates for {} books", updated);
+        return updated;
+    }
+
+    public List<Integer> findInconsistentBooks() {
+        final int maxId = this.bookRepository.findMaxId();
+        final List<Integer> inconsistentBooks = new ArrayList<>();
+        for (int fromId = 1; fromId <= maxId; fromId += batchSize) {
+            inconsistentBooks.addAll(this.bookRepository.findBooksWithInconsistentRating(fromId, fromId + batchSize - 1));
+        }
+        return inconsistentBooks;
+    }
+}
@@ -1,20 +1,222 @@
 package com.osama.book.book;
 
+import com.osama.book.search.SearchableBook;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface BookRepository extends JpaRepository<Book, Integer>, JpaSpecificationExecutor<Book> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookRepository extends JpaRepository<Book, Integer> {
+
+    @Query("""
+            SELECT new com.osama.book.book.BookSummary(
+                b.id, b.title, b.authorName, b.isbn, b.synopsis,
+                CONCAT(owner.firstName, ' ', owner.lastName),
+                b.bookCover, b.rate, b.archived, b.shareable, b.createdDate)
+            FROM Book b
+            JOIN b.owner owner
+            WHERE b.id = :bookId
+            """)
+    Optional<BookSummary> findSummaryById(@Param("bookId") Integer bookId);
 
     @Query("""
-            SELECT book
+            SELECT new com.osama.book.book.BookSummary(
+                b.id, b.title, b.authorName, b.isbn, b.synopsis,
+                CONCAT(owner.firstName, ' ', owner.lastName),
+                b.bookCover, b.rate, b.archived, b.shareable, b.createdDate)
+            FROM Book b
+            JOIN b.owner owner
+            WHERE b.id IN :bookIds
+            """)
+    List<BookSummary> findSummariesByIdIn(@Param("bookIds") Collection<Integer> bookIds);
+
+    @Query("""
+            SELECT new com.osama.book.book.BookSummary(
+                b.id, b.title, b.authorName, b.isbn, b.synopsis,
+                CONCAT(owner.firstName, ' ', owner.lastName),
+                b.bookCover, b.rate, b.archived, b.shareable, b.createdDate)
+            FROM Book b
+            JOIN b.owner owner
+            WHERE b.id IN :bookIds
+            AND b.archived = false
+            AND b.shareable = true
+            AND owner.id != :userId
+            """)
+    List<BookSummary> findDisplayableSummariesByIdIn(
+            @Param("bookIds") Collection<Integer> bookIds,
+            @Param("userId") Integer userId);
+
+    @Query("""
+            SELECT new com.osama.book.search.SearchableBook(
+                b.id, b.owner.id, b.title, b.authorName, b.isbn, b.synopsis, b.archived, b.shareable)
+            FROM Book b
+            WHERE b.id > :lastId
+            ORDER BY b.id
+            """)
+    List<SearchableBook> findSearchableBooksAfter(@Param("lastId") Integer lastId, Limit limit);
+
+    @Query("""
+            SELECT new com.osama.book.book.CatalogEntry(b.id, b.owner.id)
+            FROM Book b
+            WHERE b.archived = false
+            AND b.shareable = true
+            ORDER BY b.createdDate DESC, b.id DESC
+            """)
+    List<CatalogEntry> findDisplayableCatalog(Limit limit);
+
+    @Query(value = """
+            SELECT new com.osama.book.book.BookSummary(
+                b.id, b.title, b.authorName, b.isbn, b.synopsis,
+                CONCAT(owner.firstName, ' ', owner.lastName),
+                b.bookCover, b.rate, b.archived, b.shareable, b.createdDate)
+            FROM Book b
+            JOIN b.owner owner
+            WHERE b.archived = false
+            AND b.shareable = true
+            AND owner.id != :userId
+            """,
+            countQuery = """
+            SELECT COUNT(b)
             FROM Book b
             WHERE b.archived = false
             AND b.shareable = true
             AND b.owner.id != :userId
             """)
-    Page<Book> findAllDisplayableBooks(Pageable pageable, @Param("userId") Integer userId);
+    Page<BookSummary> findAllDisplayableBooks(Pageable pageable, @Param("userId") Integer userId);
+
+    @Query(value = """
+            SELECT new com.osama.book.book.BookSummary(
+                b.id, b.title, b.authorName, b.isbn, b.synopsis,
+                CONCAT(owner.firstName, ' ', owner.lastName),
+                b.bookCover, b.rate, b.archived, b.shareable, b.createdDate)
+            FROM Book b
+            JOIN b.owner owner
+            WHERE owner.id = :ownerId
+            """,
+            countQuery = """
+            SELECT COUNT(b)
+            FROM Book b
+            WHERE b.owner.id = :ownerId
+            """)
+    Page<BookSummary> findAllBooksByOwner(Pageable pageable, @Param("ownerId") Integer ownerId);
+
+    @Query("""
+            SELECT new com.osama.book.book.BookSummary(
+                b.id, b.title, b.authorName, b.isbn, b.synopsis,
+                CONCAT(owner.firstName, ' ', owner.lastName),
+                b.bookCover, b.rate, b.archived, b.shareable, b.createdDate)
+            FROM Book b
+            JOIN b.owner owner
+            WHERE b.archived = false
+            AND b.shareable = true
+            AND owner.id != :userId
+            AND (b.createdDate < :createdDate OR (b.createdDate = :createdDate AND b.id < :id))
+            ORDER BY b.createdDate DESC, b.id DESC
+            """)
+    List<BookSummary> findDisplayableBooksBefore(
+            @Param("userId") Integer userId,
+            @Param("createdDate") LocalDateTime createdDate,
+            @Param("id") Integer id,
+            Limit limit);
+
+    @Query("""
+            SELECT new com.osama.book.book.BookSummary(
+                b.id, b.title, b.authorName, b.isbn, b.synopsis,
+                CONCAT(owner.firstName, ' ', owner.lastName),
+                b.bookCover, b.rate, b.archived, b.shareable, b.createdDate)
+            FROM Book b
+            JOIN b.owner owner
+            WHERE owner.id = :ownerId
+            AND (b.createdDate < :createdDate OR (b.createdDate = :createdDate AND b.id < :id))
+            ORDER BY b.createdDate DESC, b.id DESC
+            """)
+    List<BookSummary> findOwnerBooksBefore(
+            @Param("ownerId") Integer ownerId,
+            @Param("createdDate") LocalDateTime createdDate,
+            @Param("id") Integer id,
+            Limit limit);
+
+    @Modifying
+    @Query("""
+            UPDATE Book b
+            SET b.rate = ROUND((b.rateSum + :note) / (b.rateCount + 1), 1),
+                b.rateSum = b.rateSum + :note,
+                b.rateCount = b.rateCount + 1
+            WHERE b.id = :bookId
+            """)
+    int addRating(final @Param("bookId") Integer bookId, final @Param("note") double note);
+
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("""
+            SELECT b
+            FROM Book b
+            WHERE b.id = :bookId
+            """)
+    Optional<Book> findForBorrow(@Param("bookId") Integer bookId);
+
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("""
+            SELECT b
+            FROM Book b
+            WHERE b.id IN :bookIds
+            """)
+    List<Book> findAllForBorrow(@Param("bookIds") Collection<Integer> bookIds);
+
+    @Query("""
+            SELECT b
+            FROM Book b
+            JOIN FETCH b.owner
+            WHERE b.id IN :bookIds
+            """)
+    List<Book> findAllWithOwnerByIdIn(@Param("bookIds") Collection<Integer> bookIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT b
+            FROM Book b
+            WHERE b.id = :bookId
+            """)
+    Optional<Book> findForUpdate(@Param("bookId") Integer bookId);
+
+    @Query("""
+            SELECT COALESCE(MAX(b.id), 0)
+            FROM Book b
+            """)
+    Integer findMaxId();
+
+    @Modifying
+    @Query("""
+            UPDATE Book b
+            SET b.rateSum = COALESCE((SELECT SUM(f.note) FROM Feedback f WHERE f.book.id = b.id), 0),
+                b.rateCount = (SELECT COUNT(f) FROM Feedback f WHERE f.book.id = b.id)
+            WHERE b.id BETWEEN :fromId AND :toId
+            """)
+    int rebuildRateAggregates(final @Param("fromId") Integer fromId, final @Param("toId") Integer toId);
+
+    @Modifying
+    @Query("""
+            UPDATE Book b
+            SET b.rate = CASE WHEN b.rateCount = 0 THEN 0 ELSE ROUND(b.rateSum / b.rateCount, 1) END
+            WHERE b.id BETWEEN :fromId AND :toId
+            """)
+    int rebuildRates(final @Param("fromId") Integer fromId, final @Param("toId") Integer toId);
+
+    @Query("""
+            SELECT b.id
+            FROM Book b
+            WHERE b.id BETWEEN :fromId AND :toId
+            AND (b.rateCount <> (SELECT COUNT(f) FROM Feedback f WHERE f.book.id = b.id)
+                OR ABS(b.rateSum - COALESCE((SELECT SUM(f.note) FROM Feedback f WHERE f.book.id = b.id), 0)) > 0.0001)
+            """)
+    List<Integer> findBooksWithInconsistentRating(final @Param("fromId") Integer fromId, final @Param("toId") Integer toId);
 }
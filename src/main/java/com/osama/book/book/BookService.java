@@ -3,51 +3,179 @@ package com.osama.book.book;
 import com.osama.book.book.request.BookRequest;
 import com.osama.book.book.response.BookResponse;
 import com.osama.book.book.response.BorrowedBookResponse;
+import com.osama.book.common.CursorPageResponse;
+import com.osama.book.common.PageCursor;
 import com.osama.book.common.PageResponse;
+import com.osama.book.cover.CoverJobResponse;
+import com.osama.book.cover.CoverJobService;
+import com.osama.book.cover.CoverRendition;
+import com.osama.book.exception.InvalidRequestParameterException;
 import com.osama.book.exception.OperationNotPermittedException;
 import com.osama.book.file.FileStorageService;
 import com.osama.book.history.BookTransactionRepository;
+import com.osama.book.history.BorrowedBookSummary;
 import com.osama.book.history.TransactionHistory;
+import com.osama.book.outbox.DomainEventType;
+import com.osama.book.outbox.OutboxEventPublisher;
+import com.osama.book.recommendation.RelatedBooksIndex;
+import com.osama.book.reservation.ReservationService;
+import com.osama.book.trending.TrendingBooks;
+import com.osama.book.trending.TrendingWindow;
+import com.osama.book.search.BookSearchIndex;
 import com.osama.book.user.User;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
 
+    private static final int MAX_BORROW_ATTEMPTS = 3;
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final int MAX_SEARCH_SIZE = 100;
+
     private final BookRepository bookRepository;
     private final BookTransactionRepository transactionRepository;
     private final BookMapper bookMapper;
     private final FileStorageService fileStorageService;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookCatalogCache bookCatalogCache;
+    private final CoverJobService coverJobService;
+    private final RelatedBooksIndex relatedBooksIndex;
+    private final TrendingBooks trendingBooks;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxEventPublisher outboxEventPublisher;
+    private final ReservationService reservationService;
+    private final BookLockManager bookLockManager;
+
+    @Value("${application.loan.duration}")
+    private Duration loanDuration;
 
     public Integer save(final BookRequest request, final Authentication connectedUser) {
         final User user = (User) connectedUser.getPrincipal();
-        final Book book = this.bookMapper.toBook(request);
-        book.setOwner(user);
-        return this.bookRepository.save(book).getId();
+        final Book savedBook;
+        if (request.id() == null) {
+            final Book book = this.bookMapper.toBook(request);
+            book.setOwner(user);
+            savedBook = this.bookRepository.save(book);
+            this.bookCatalogCache.evictCatalog();
+        } else {
+            savedBook = this.bookLockManager.withLock(request.id(), () ->
+                    this.transactionTemplate.execute(status -> update(request, user)));
+            this.bookCatalogCache.evictCatalog(request.id());
+        }
+        this.bookSearchIndex.index(savedBook);
+        return savedBook.getId();
+    }
+
+    private Book update(final BookRequest request, final User user) {
+        final Book book = this.bookRepository.findById(request.id())
+                .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + request.id()));
+
+        if (!Objects.equals(book.getOwner().getId(), user.getId())) {
+            throw new OperationNotPermittedException("You can not update others book");
+        }
+        this.bookMapper.updateBook(book, request);
+        return book;
     }
 
     public BookResponse findById(final Integer bookId) {
-        return this.bookRepository.findById(bookId)
+        return this.bookRepository.findSummaryById(bookId)
                 .map(this.bookMapper::toBookResponse)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + bookId));
     }
 
+    public List<BookResponse> search(final String query, final int size, final Authentication connectedUser) {
+        if (size < 1 || size > MAX_SEARCH_SIZE) {
+            throw new InvalidRequestParameterException("Search size must be between 1 and " + MAX_SEARCH_SIZE);
+        }
+        final User user = (User) connectedUser.getPrincipal();
+        final List<Integer> bookIds = this.bookSearchIndex.search(query, user.getId(), size);
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        final Map<Integer, BookSummary> books = this.bookRepository.findSummariesByIdIn(bookIds).stream()
+                .collect(Collectors.toMap(BookSummary::id, Function.identity()));
+        return bookIds.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .map(bookMapper::toBookResponse)
+                .toList();
+    }
+
+    public BookCover findBookCover(final Integer bookId, final CoverRendition rendition) {
+        final Book book = this.bookRepository.findById(bookId)
+                .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + bookId));
+        final String rendered = switch (rendition) {
+            case THUMBNAIL -> book.getCoverThumbnail();
+            case CARD -> book.getCoverCard();
+            case FULL -> book.getBookCover();
+        };
+        final String cover = rendered != null ? rendered : book.getBookCover();
+        if (cover == null || !Files.isReadable(Path.of(cover))) {
+            throw new EntityNotFoundException("No cover found for book with id: " + bookId);
+        }
+        return new BookCover(Path.of(cover), this.bookMapper.toCoverVersion(book.getBookCover()));
+    }
+
+    public List<BookResponse> findRelated(final Integer bookId, final int size, final Authentication connectedUser) {
+        final List<Integer> bookIds = Arrays.stream(this.relatedBooksIndex.findRelated(bookId))
+                .boxed()
+                .toList();
+        return findDisplayableBooks(bookIds, size, connectedUser);
+    }
+
+    public List<BookResponse> findTrending(final TrendingWindow window, final int size, final Authentication connectedUser) {
+        return findDisplayableBooks(this.trendingBooks.findTrending(window), size, connectedUser);
+    }
+
+    private List<BookResponse> findDisplayableBooks(final List<Integer> rankedBookIds, final int size, final Authentication connectedUser) {
+        if (rankedBookIds.isEmpty() || size <= 0) {
+            return List.of();
+        }
+        final User user = (User) connectedUser.getPrincipal();
+        final Map<Integer, BookSummary> books = this.bookRepository.findDisplayableSummariesByIdIn(rankedBookIds, user.getId()).stream()
+                .collect(Collectors.toMap(BookSummary::id, Function.identity()));
+        return rankedBookIds.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .limit(size)
+                .map(bookMapper::toBookResponse)
+                .toList();
+    }
+
     public PageResponse<BookResponse> findAll(final int page, final int size, final Authentication connectedUser) {
         final User user = (User) connectedUser.getPrincipal();
+        final Optional<PageResponse<BookResponse>> cachedPage = this.bookCatalogCache.findDisplayableBooks(page, size, user.getId());
+        if (cachedPage.isPresent()) {
+            return cachedPage.get();
+        }
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
-        Page<Book> books = this.bookRepository.findAllDisplayableBooks(pageable, user.getId());
+        Page<BookSummary> books = this.bookRepository.findAllDisplayableBooks(pageable, user.getId());
         List<BookResponse> bookResponse = books.stream()
                 .map(bookMapper::toBookResponse)
                 .toList();
@@ -66,7 +194,7 @@ public class BookService {
     public PageResponse<BookResponse> findAllBooksByOwner(final int page, final int size, final Authentication connectedUser) {
         final User user = (User) connectedUser.getPrincipal();
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
-        Page<Book> books = this.bookRepository.findAll(BookSpecification.withOwnerId(user.getId()), pageable);
+        Page<BookSummary> books = this.bookRepository.findAllBooksByOwner(pageable, user.getId());
         List<BookResponse> bookResponse = books.stream()
                 .map(bookMapper::toBookResponse)
                 .toList();
@@ -85,7 +213,7 @@ public class BookService {
     public PageResponse<BorrowedBookResponse> findAllBorrowedBooks(final int page, final int size, final Authentication connectedUser) {
         final User user = (User) connectedUser.getPrincipal();
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
-        Page<TransactionHistory> borrowedBooks = this.transactionRepository.findAllBorrowedBooks(pageable, user.getId());
+        Page<BorrowedBookSummary> borrowedBooks = this.transactionRepository.findAllBorrowedBooks(pageable, user.getId());
         List<BorrowedBookResponse> bookResponse = borrowedBooks.stream()
                 .map(bookMapper::toBorrowedBookResponse)
                 .toList();
@@ -104,7 +232,7 @@ public class BookService {
     public PageResponse<BorrowedBookResponse> findAllReturnedBooks(final int page, final int size, final Authentication connectedUser) {
         final User user = (User) connectedUser.getPrincipal();
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
-        Page<TransactionHistory> borrowedBooks = this.transactionRepository.findAllReturnedBooks(pageable, user.getId());
+        Page<BorrowedBookSummary> borrowedBooks = this.transactionRepository.findAllReturnedBooks(pageable, user.getId());
         List<BorrowedBookResponse> bookResponse = borrowedBooks.stream()
                 .map(bookMapper::toBorrowedBookResponse)
                 .toList();
@@ -120,6 +248,67 @@ public class BookService {
         );
     }
 
+    public CursorPageResponse<BookResponse> findAllByCursor(final String cursor, final int size, final Authentication connectedUser) {
+        requireValidSize(size);
+        final User user = (User) connectedUser.getPrincipal();
+        final PageCursor pageCursor = PageCursor.decode(cursor);
+        final List<BookSummary> books = this.bookRepository.findDisplayableBooksBefore(
+                user.getId(), pageCursor.createdDate(), pageCursor.id(), Limit.of(size + 1));
+        return toCursorPage(books, size, bookMapper::toBookResponse, book -> new PageCursor(book.createdDate(), book.id()));
+    }
+
+    public CursorPageResponse<BookResponse> findAllBooksByOwnerByCursor(final String cursor, final int size, final Authentication connectedUser) {
+        requireValidSize(size);
+        final User user = (User) connectedUser.getPrincipal();
+        final PageCursor pageCursor = PageCursor.decode(cursor);
+        final List<BookSummary> books = this.bookRepository.findOwnerBooksBefore(
+                user.getId(), pageCursor.createdDate(), pageCursor.id(), Limit.of(size + 1));
+        return toCursorPage(books, size, bookMapper::toBookResponse, book -> new PageCursor(book.createdDate(), book.id()));
+    }
+
+    public CursorPageResponse<BorrowedBookResponse> findAllBorrowedBooksByCursor(final String cursor, final int size, final Authentication connectedUser) {
+        requireValidSize(size);
+        final User user = (User) connectedUser.getPrincipal();
+        final PageCursor pageCursor = PageCursor.decode(cursor);
+        final List<BorrowedBookSummary> borrowedBooks = this.transactionRepository.findBorrowedBooksBefore(
+                user.getId(), pageCursor.createdDate(), pageCursor.id(), Limit.of(size + 1));
+        return toCursorPage(borrowedBooks, size, bookMapper::toBorrowedBookResponse, history -> new PageCursor(history.createdDate(), history.id()));
+    }
+
+    public CursorPageResponse<BorrowedBookResponse> findAllReturnedBooksByCursor(final String cursor, final int size, final Authentication connectedUser) {
+        requireValidSize(size);
+        final User user = (User) connectedUser.getPrincipal();
+        final PageCursor pageCursor = PageCursor.decode(cursor);
+        final List<BorrowedBookSummary> returnedBooks = this.transactionRepository.findReturnedBooksBefore(
+                user.getId(), pageCursor.createdDate(), pageCursor.id(), Limit.of(size + 1));
+        return toCursorPage(returnedBooks, size, bookMapper::toBorrowedBookResponse, history -> new PageCursor(history.createdDate(), history.id()));
+    }
+
+    private void requireValidSize(final int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new InvalidRequestParameterException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+    }
+
+    private <E, R> CursorPageResponse<R> toCursorPage(
+            final List<E> rows,
+            final int size,
+            final Function<E, R> mapper,
+            final Function<E, PageCursor> cursorMapper) {
+        final boolean last = rows.size() <= size;
+        final List<E> pageRows = last ? rows : rows.subList(0, size);
+        final List<R> content = pageRows.stream()
+                .map(mapper)
+                .toList();
+
+        return new CursorPageResponse<>(
+                content,
+                size,
+                last ? null : cursorMapper.apply(pageRows.get(pageRows.size() - 1)).encode(),
+                last
+        );
+    }
+
     public Integer updateShareableStatus(final Integer bookId, final Authentication connectedUser) {
         final Book book = this.bookRepository.findById(bookId)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found"));
@@ -130,6 +319,8 @@ public class BookService {
         }
         book.setShareable(!book.isShareable());
         this.bookRepository.save(book);
+        this.bookSearchIndex.index(book);
+        this.bookCatalogCache.evictCatalog(bookId);
         return bookId;
     }
 
@@ -143,37 +334,67 @@ public class BookService {
         }
         book.setArchived(!book.isArchived());
         this.bookRepository.save(book);
+        this.bookSearchIndex.index(book);
+        this.bookCatalogCache.evictCatalog(bookId);
         return bookId;
     }
 
     public Integer borrowBook(final Integer bookId, final Authentication connectedUser) {
-        final Book book = this.bookRepository.findById(bookId)
+        final User user = (User) connectedUser.getPrincipal();
+        return this.bookLockManager.withLock(bookId, () -> borrowWithRetry(bookId, user));
+    }
+
+    private Integer borrowWithRetry(final Integer bookId, final User user) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return this.transactionTemplate.execute(status -> borrow(bookId, user));
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt == MAX_BORROW_ATTEMPTS) {
+                    throw new OperationNotPermittedException("The requested book is being borrowed by someone else, please retry");
+                }
+            }
+        }
+    }
+
+    private Integer borrow(final Integer bookId, final User user) {
+        final Book book = this.bookRepository.findForBorrow(bookId)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + bookId));
 
         if (book.isArchived() || !book.isShareable()) {
             throw new OperationNotPermittedException("You can't borrow this book since it's archived or not shareable");
         }
 
-        final User user = (User) connectedUser.getPrincipal();
         if (Objects.equals(book.getOwner().getId(), user.getId())) {
             throw new OperationNotPermittedException("You can't borrow you own book");
         }
 
-        final boolean isAlreadyBorrowed = this.transactionRepository.isAlreadyBorrowed(bookId, user.getId());
+        final boolean isAlreadyBorrowed = this.transactionRepository.isAlreadyBorrowed(bookId);
         if (isAlreadyBorrowed) {
             throw new OperationNotPermittedException("The requested book is already borrowed");
         }
 
+        this.reservationService.claimHold(bookId, user.getId());
+
         final TransactionHistory transactionHistory = TransactionHistory.builder()
                 .book(book)
                 .user(user)
                 .returned(false)
                 .returnedApprove(false)
+                .activeBookId(bookId)
+                .ownerId(book.getOwner().getId())
+                .dueDate(LocalDateTime.now().plus(this.loanDuration))
                 .build();
-        return this.transactionRepository.save(transactionHistory).getId();
+        final Integer historyId = this.transactionRepository.saveAndFlush(transactionHistory).getId();
+        this.outboxEventPublisher.publish(DomainEventType.BOOK_BORROWED, bookId, user.getId(), historyId);
+        return historyId;
     }
 
     public Integer borrowedReturn(final Integer bookId, final Authentication connectedUser) {
+        return this.bookLockManager.withLock(bookId, () ->
+                this.transactionTemplate.execute(status -> returnBorrowedBook(bookId, connectedUser)));
+    }
+
+    private Integer returnBorrowedBook(final Integer bookId, final Authentication connectedUser) {
         final Book book = this.bookRepository.findById(bookId)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + bookId));
 
@@ -190,10 +411,18 @@ public class BookService {
                 .orElseThrow(() -> new OperationNotPermittedException("You can't return book that you didn't borrowed"));
 
         returnedBook.setReturned(true);
-        return this.transactionRepository.save(returnedBook).getId();
+        returnedBook.setReturnedDate(LocalDateTime.now());
+        final Integer historyId = this.transactionRepository.save(returnedBook).getId();
+        this.outboxEventPublisher.publish(DomainEventType.BOOK_RETURNED, bookId, user.getId(), historyId);
+        return historyId;
     }
 
     public Integer approveReturnBorrowedBook(final Integer bookId, final Authentication connectedUser) {
+        return this.bookLockManager.withLock(bookId, () ->
+                this.transactionTemplate.execute(status -> approveReturn(bookId, connectedUser)));
+    }
+
+    private Integer approveReturn(final Integer bookId, final Authentication connectedUser) {
         final Book book = this.bookRepository.findById(bookId)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + bookId));
 
@@ -210,16 +439,25 @@ public class BookService {
                 .orElseThrow(() -> new OperationNotPermittedException("The book is not returned yet to be approved"));
 
         approvedBook.setReturnedApprove(true);
-        return this.transactionRepository.save(approvedBook).getId();
+        approvedBook.setApprovedDate(LocalDateTime.now());
+        approvedBook.setActiveBookId(null);
+        final Integer historyId = this.transactionRepository.save(approvedBook).getId();
+        this.outboxEventPublisher.publish(DomainEventType.RETURN_APPROVED, bookId, approvedBook.getUser().getId(), historyId);
+        return historyId;
     }
 
-    public void uploadBookCoverPicture(final MultipartFile file, final Authentication connectedUser, final Integer bookId) {
+    public CoverJobResponse uploadBookCoverPicture(final MultipartFile file, final Authentication connectedUser, final Integer bookId) {
         final Book book = this.bookRepository.findById(bookId)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + bookId));
 
-        final User user = (User) connectedUser.getPrincipal();
-        var bookCover = fileStorageService.saveFile(file, user.getId());
-        book.setBookCover(bookCover);
-        this.bookRepository.save(book);
+        final String contentHash = fileStorageService.saveFile(file);
+        if (contentHash == null) {
+            throw new OperationNotPermittedException("The cover could not be stored");
+        }
+        return this.coverJobService.enqueue(book.getId(), contentHash);
+    }
+
+    public CoverJobResponse findCoverJob(final Integer jobId) {
+        return this.coverJobService.findById(jobId);
     }
 }
\ No newline at end of file
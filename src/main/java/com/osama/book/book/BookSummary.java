@@ -0,0 +1,17 @@
+package com.osama.book.book;
+
+import java.time.LocalDateTime;
+
+public record BookSummary(
+        Integer id,
+        String title,
+        String authorName,
+        String isbn,
+        String synopsis,
+        String owner,
+        String bookCover,
+        double rate,
+        boolean archived,
+        boolean shareable,
+        LocalDateTime createdDate
+) {}
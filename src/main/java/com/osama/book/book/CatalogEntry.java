@@ -0,0 +1,3 @@
+package com.osama.book.book;
+
+public record CatalogEntry(Integer id, Integer ownerId) {}
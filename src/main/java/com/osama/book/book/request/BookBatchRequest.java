@@ -0,0 +1,13 @@
+package com.osama.book.book.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BookBatchRequest(
+        @NotEmpty(message = "At least one book id is required")
+        @Size(max = 100, message = "At most 100 books can be processed at once")
+        List<@NotNull(message = "Book id is required") Integer> bookIds
+) {}
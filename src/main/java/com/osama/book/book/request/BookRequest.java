@@ -25,6 +25,5 @@ public record BookRequest(
         String synopsis,
 
         @NotNull(message = "shareable is required")
-        @NotEmpty(message = "shareable can't be empty")
         boolean shareable
 ) {}
@@ -0,0 +1,15 @@
+package com.osama.book.book.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookBatchItem {
+
+    private Integer bookId;
+    private Integer transactionId;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package com.osama.book.book.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookBatchResponse {
+
+    private int succeeded;
+    private int failed;
+    private List<BookBatchItem> items;
+}
@@ -0,0 +1,16 @@
+package com.osama.book.book.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookImportError {
+
+    private long line;
+    private List<String> messages;
+}
@@ -0,0 +1,18 @@
+package com.osama.book.book.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookImportResponse {
+
+    private int imported;
+    private int rejected;
+    private int unreportedErrors;
+    private List<BookImportError> errors;
+}
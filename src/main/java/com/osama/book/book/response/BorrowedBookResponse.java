@@ -2,6 +2,8 @@ package com.osama.book.book.response;
 
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @AllArgsConstructor
@@ -16,5 +18,7 @@ public class BorrowedBookResponse {
     private double rate;
     private boolean returned;
     private boolean returnedApproved;
+    private LocalDateTime dueDate;
+    private boolean overdue;
 
 }
@@ -0,0 +1,18 @@
+package com.osama.book.common;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean last;
+}
@@ -0,0 +1,36 @@
+package com.osama.book.common;
+
+import com.osama.book.exception.InvalidCursorException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record PageCursor(LocalDateTime createdDate, Integer id) {
+
+    public static final PageCursor FIRST = new PageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Integer.MAX_VALUE);
+
+    private static final String SEPARATOR = "|";
+
+    public static PageCursor decode(final String token) {
+        if (StringUtils.isBlank(token)) {
+            return FIRST;
+        }
+        try {
+            final String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            final int separatorIndex = value.lastIndexOf(SEPARATOR);
+            return new PageCursor(
+                    LocalDateTime.parse(value.substring(0, separatorIndex)),
+                    Integer.valueOf(value.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        final String value = createdDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,27 @@
+package com.osama.book.cover;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "cover_job")
+public class CoverJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    private Integer bookId;
+    @Column(length = 64)
+    private String contentHash;
+    @Enumerated(EnumType.STRING)
+    private CoverJobStatus status;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,18 @@
+package com.osama.book.cover;
+
+import org.springframework.stereotype.Service;
+
+@Service
+public class CoverJobMapper {
+
+    public CoverJobResponse toCoverJobResponse(final CoverJob job) {
+        return CoverJobResponse.builder()
+                .id(job.getId())
+                .bookId(job.getBookId())
+                .status(job.getStatus())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+}
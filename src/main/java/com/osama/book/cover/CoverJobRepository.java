@@ -0,0 +1,17 @@
+package com.osama.book.cover;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface CoverJobRepository extends JpaRepository<CoverJob, Integer> {
+
+    @Query("""
+            SELECT job
+            FROM CoverJob job
+            WHERE job.status IN (com.osama.book.cover.CoverJobStatus.PENDING, com.osama.book.cover.CoverJobStatus.PROCESSING)
+            ORDER BY job.id
+            """)
+    List<CoverJob> findUnfinishedJobs();
+}
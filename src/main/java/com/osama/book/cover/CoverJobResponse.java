@@ -0,0 +1,20 @@
+package com.osama.book.cover;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CoverJobResponse {
+
+    private Integer id;
+    private Integer bookId;
+    private CoverJobStatus status;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,150 @@
+package com.osama.book.cover;
+
+import com.osama.book.book.Book;
+import com.osama.book.book.BookCatalogCache;
+import com.osama.book.book.BookRepository;
+import com.osama.book.file.FileStorageService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class CoverJobService {
+
+    private final CoverJobRepository coverJobRepository;
+    private final CoverJobMapper coverJobMapper;
+    private final CoverRenditionWriter coverRenditionWriter;
+    private final BookRepository bookRepository;
+    private final BookCatalogCache bookCatalogCache;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+
+    public CoverJobService(
+            final CoverJobRepository coverJobRepository,
+            final CoverJobMapper coverJobMapper,
+            final CoverRenditionWriter coverRenditionWriter,
+            final BookRepository bookRepository,
+            final BookCatalogCache bookCatalogCache,
+            final FileStorageService fileStorageService,
+            final TransactionTemplate transactionTemplate,
+            @Value("${application.cover.executor.pool-size}") final int poolSize,
+            @Value("${application.cover.executor.queue-capacity}") final int queueCapacity) {
+        this.coverJobRepository = coverJobRepository;
+        this.coverJobMapper = coverJobMapper;
+        this.coverRenditionWriter = coverRenditionWriter;
+        this.bookRepository = bookRepository;
+        this.bookCatalogCache = bookCatalogCache;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(poolSize);
+        this.executor.setMaxPoolSize(poolSize);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("cover-");
+        this.executor.setWaitForTasksToCompleteOnShutdown(true);
+        this.executor.initialize();
+    }
+
+    public CoverJobResponse enqueue(final Integer bookId, final String contentHash) {
+        final CoverJob job = this.coverJobRepository.save(CoverJob.builder()
+                .bookId(bookId)
+                .contentHash(contentHash)
+                .status(CoverJobStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build());
+        submit(job);
+        return this.coverJobMapper.toCoverJobResponse(job);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        final List<CoverJob> jobs = this.coverJobRepository.findUnfinishedJobs();
+        int failed = 0;
+        for (CoverJob job : jobs) {
+            try {
+                submit(job);
+            } catch (TaskRejectedException e) {
+                failed++;
+            }
+        }
+        if (!jobs.isEmpty()) {
+            log.info("Resumed {} unfinished cover jobs, {} failed because the queue was full", jobs.size() - failed, failed);
+        }
+    }
+
+    public CoverJobResponse findById(final Integer jobId) {
+        return this.coverJobRepository.findById(jobId)
+                .map(this.coverJobMapper::toCoverJobResponse)
+                .orElseThrow(() -> new EntityNotFoundException("Cover job not found with id: " + jobId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    private void submit(final CoverJob job) {
+        try {
+            this.executor.execute(() -> process(job.getId()));
+        } catch (TaskRejectedException e) {
+            fail(job, "Cover processing queue is full");
+            throw e;
+        }
+    }
+
+    private void fail(final CoverJob job, final String error) {
+        job.setStatus(CoverJobStatus.FAILED);
+        job.setError(error);
+        job.setCompletedAt(LocalDateTime.now());
+        this.coverJobRepository.save(job);
+        this.fileStorageService.release(job.getContentHash());
+    }
+
+    private void process(final Integer jobId) {
+        final CoverJob job = this.coverJobRepository.findById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Cover job not found with id: " + jobId));
+        job.setStatus(CoverJobStatus.PROCESSING);
+        this.coverJobRepository.save(job);
+
+        try {
+            final Map<CoverRendition, Path> renditions = this.coverRenditionWriter.write(job.getContentHash());
+            final String previousHash = this.transactionTemplate.execute(status -> {
+                final Book book = this.bookRepository.findForUpdate(job.getBookId())
+                        .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + job.getBookId()));
+                final String replacedHash = book.getCoverHash();
+                book.setCoverHash(job.getContentHash());
+                book.setBookCover(renditions.get(CoverRendition.FULL).toString());
+                book.setCoverCard(renditions.get(CoverRendition.CARD).toString());
+                book.setCoverThumbnail(renditions.get(CoverRendition.THUMBNAIL).toString());
+                return replacedHash;
+            });
+            if (previousHash != null) {
+                this.fileStorageService.release(previousHash);
+            }
+            this.bookCatalogCache.evict(job.getBookId());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cover job {} for book {} failed", jobId, job.getBookId(), e);
+            fail(job, StringUtils.abbreviate(e.getMessage(), 255));
+            return;
+        }
+        job.setStatus(CoverJobStatus.COMPLETED);
+        job.setCompletedAt(LocalDateTime.now());
+        this.coverJobRepository.save(job);
+    }
+}
@@ -0,0 +1,8 @@
+package com.osama.book.cover;
+
+public enum CoverJobStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
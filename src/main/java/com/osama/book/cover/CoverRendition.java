@@ -0,0 +1,24 @@
+package com.osama.book.cover;
+
+import com.osama.book.exception.InvalidRequestParameterException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum CoverRendition {
+    FULL(1600),
+    CARD(480),
+    THUMBNAIL(160);
+
+    private final int maxDimension;
+
+    public static CoverRendition fromName(final String name) {
+        for (CoverRendition rendition : values()) {
+            if (rendition.name().equalsIgnoreCase(name)) {
+                return rendition;
+            }
+        }
+        throw new InvalidRequestParameterException("Unknown cover size: " + name);
+    }
+}
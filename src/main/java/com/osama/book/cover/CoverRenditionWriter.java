@@ -0,0 +1,144 @@
+package com.osama.book.cover;
+
+import com.osama.book.file.FileStorageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class CoverRenditionWriter {
+
+    private static final long MAX_PIXELS = 50_000_000L;
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final List<String> EXTENSIONS = List.of("jpg", "png");
+
+    private final FileStorageService fileStorageService;
+
+    public Map<CoverRendition, Path> write(final String hash) throws IOException {
+        final Map<CoverRendition, Path> existing = findExisting(hash);
+        if (existing.size() == CoverRendition.values().length) {
+            return existing;
+        }
+
+        final BufferedImage original = decode(this.fileStorageService.getOriginal(hash));
+        final boolean alpha = original.getColorModel().hasAlpha();
+        final Map<CoverRendition, Path> renditions = new EnumMap<>(CoverRendition.class);
+        BufferedImage image = original;
+        for (CoverRendition rendition : CoverRendition.values()) {
+            final BufferedImage scaled = scale(image, rendition.getMaxDimension(), alpha);
+            final Path target = this.fileStorageService.resolve(hash, fileName(hash, rendition, alpha ? "png" : "jpg"));
+            this.fileStorageService.writeAtomically(target, file -> {
+                if (alpha) {
+                    ImageIO.write(scaled, "png", file.toFile());
+                } else {
+                    writeJpeg(scaled, file);
+                }
+            });
+            renditions.put(rendition, target);
+            image = scaled;
+        }
+        return renditions;
+    }
+
+    private Map<CoverRendition, Path> findExisting(final String hash) {
+        final Map<CoverRendition, Path> renditions = new EnumMap<>(CoverRendition.class);
+        for (CoverRendition rendition : CoverRendition.values()) {
+            EXTENSIONS.stream()
+                    .map(extension -> this.fileStorageService.resolve(hash, fileName(hash, rendition, extension)))
+                    .filter(Files::isRegularFile)
+                    .findFirst()
+                    .ifPresent(path -> renditions.put(rendition, path));
+        }
+        return renditions;
+    }
+
+    private String fileName(final String hash, final CoverRendition rendition, final String extension) {
+        return hash + "-" + rendition.name().toLowerCase(Locale.ROOT) + "." + extension;
+    }
+
+    private BufferedImage decode(final Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                throw new IOException("Cannot open cover " + source);
+            }
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported cover image format");
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                final long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_PIXELS) {
+                    throw new IOException("Cover image is too large: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(final BufferedImage image, final int maxDimension, final boolean alpha) {
+        final double ratio = Math.min(1.0, (double) maxDimension / Math.max(image.getWidth(), image.getHeight()));
+        final int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        final int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        final int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage scaled = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            scaled = draw(scaled, width, height, type);
+        } while (width != targetWidth || height != targetHeight);
+        return scaled;
+    }
+
+    private BufferedImage draw(final BufferedImage source, final int width, final int height, final int type) {
+        final BufferedImage target = new BufferedImage(width, height, type);
+        final Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(final BufferedImage image, final Path target) throws IOException {
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        Files.deleteIfExists(target);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
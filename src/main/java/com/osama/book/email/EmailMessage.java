@@ -0,0 +1,10 @@
+package com.osama.book.email;
+
+import java.util.Map;
+
+public record EmailMessage(
+        String to,
+        String subject,
+        EmailTemplateName template,
+        Map<String, Object> variables
+) {}
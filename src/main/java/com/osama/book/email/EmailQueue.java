@@ -0,0 +1,95 @@
+package com.osama.book.email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class EmailQueue {
+
+    private final EmailService emailService;
+    private final BlockingQueue<QueuedEmail> messages;
+    private final long sendIntervalNanos;
+    private final Counter rejectedCounter;
+    private final ThreadPoolTaskExecutor executor;
+    private long nextSendAt = System.nanoTime();
+
+    public EmailQueue(
+            final EmailService emailService,
+            final MeterRegistry meterRegistry,
+            @Value("${application.mail.queue.capacity}") final int capacity,
+            @Value("${application.mail.queue.rate-per-second}") final double ratePerSecond) {
+        this.emailService = emailService;
+        this.messages = new LinkedBlockingQueue<>(capacity);
+        this.sendIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.rejectedCounter = Counter.builder("book.mail.queue.rejected")
+                .register(meterRegistry);
+        Gauge.builder("book.mail.queue.size", this.messages, BlockingQueue::size)
+                .register(meterRegistry);
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(1);
+        this.executor.setMaxPoolSize(1);
+        this.executor.setThreadNamePrefix("mail-");
+        this.executor.initialize();
+        this.executor.execute(this::drain);
+    }
+
+    /**
+     * Queues the message for sending; {@code sent} completes once the mail server accepted it, or exceptionally
+     * when sending failed. Returns {@code false} without touching {@code sent} when the queue is full.
+     */
+    public boolean offer(final EmailMessage message, final CompletableFuture<Void> sent) {
+        final boolean accepted = this.messages.offer(new QueuedEmail(message, sent));
+        if (!accepted) {
+            this.rejectedCounter.increment();
+        }
+        return accepted;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final QueuedEmail email = this.messages.take();
+                final long delay = this.nextSendAt - System.nanoTime();
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+                this.nextSendAt = Math.max(this.nextSendAt, System.nanoTime()) + this.sendIntervalNanos;
+                send(email);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(final QueuedEmail email) {
+        final EmailMessage message = email.message();
+        try {
+            this.emailService.send(message);
+        } catch (MessagingException | RuntimeException e) {
+            log.warn("Failed to send {} email to {}", message.template(), message.to(), e);
+            email.sent().completeExceptionally(e);
+            return;
+        }
+        email.sent().complete(null);
+    }
+
+    private record QueuedEmail(EmailMessage message, CompletableFuture<Void> sent) {}
+}
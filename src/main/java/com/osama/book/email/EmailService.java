@@ -37,17 +37,25 @@ public class EmailService {
             templateName = emailTemplateName.name();
         }
 
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("username", username);
+        properties.put("confirmationUrl", confirmationUrl);
+        properties.put("activation_code", activationCode);
+
+        send(to, subject, templateName, properties);
+    }
+
+    public void send(EmailMessage message) throws MessagingException {
+        send(message.to(), message.subject(), message.template().getName(), message.variables());
+    }
+
+    private void send(String to, String subject, String templateName, Map<String, Object> properties) throws MessagingException {
         MimeMessage mimeMessage = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(
                 mimeMessage,
                 MimeMessageHelper.MULTIPART_MODE_MIXED,
                 StandardCharsets.UTF_8.name());
 
-        Map<String, Object> properties = new HashMap<>();
-        properties.put("username", username);
-        properties.put("confirmationUrl", confirmationUrl);
-        properties.put("activation_code", activationCode);
-
         Context context = new Context();
         context.setVariables(properties);
 
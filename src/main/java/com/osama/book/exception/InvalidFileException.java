@@ -0,0 +1,7 @@
+package com.osama.book.exception;
+
+public class InvalidFileException extends RuntimeException {
+    public InvalidFileException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,7 @@
+package com.osama.book.exception;
+
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String msg) {
+        super(msg);
+    }
+}
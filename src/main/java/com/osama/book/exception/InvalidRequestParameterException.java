@@ -0,0 +1,7 @@
+package com.osama.book.exception;
+
+public class InvalidRequestParameterException extends RuntimeException {
+    public InvalidRequestParameterException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,7 @@
+package com.osama.book.exception;
+
+public class TooManyExportsException extends RuntimeException {
+    public TooManyExportsException(String msg) {
+        super(msg);
+    }
+}
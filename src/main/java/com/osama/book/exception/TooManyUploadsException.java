@@ -0,0 +1,7 @@
+package com.osama.book.exception;
+
+public class TooManyUploadsException extends RuntimeException {
+    public TooManyUploadsException(String msg) {
+        super(msg);
+    }
+}
@@ -15,6 +15,7 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 @SuperBuilder
 @Entity
+@Table(indexes = @Index(name = "idx_feedback_book", columnList = "book_id, created_date"))
 public class Feedback extends BaseEntity {
 
     private double note;
@@ -1,17 +1,31 @@
 package com.osama.book.feedback;
 
+import com.osama.book.trending.TrendingSignal;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 public interface FeedbackRepository extends JpaRepository<Feedback, Integer> {
 
     @Query("""
             SELECT feedback
             FROM Feedback feedback
-            WHERE feedback.book.id =: bookId
+            WHERE feedback.book.id = :bookId
             """)
     Page<Feedback> findAllFeedbacksByBookId(@Param("bookId") Integer bookId, Pageable pageable);
+
+    @Query("""
+            SELECT new com.osama.book.trending.TrendingSignal(feedback.id, feedback.book.id, feedback.createdDate)
+            FROM Feedback feedback
+            WHERE feedback.createdDate >= :since
+            AND feedback.id > :lastId
+            ORDER BY feedback.id
+            """)
+    List<TrendingSignal> findFeedbackSignalsAfter(@Param("since") LocalDateTime since, @Param("lastId") Integer lastId, Limit limit);
 }
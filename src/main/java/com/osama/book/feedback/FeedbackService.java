@@ -1,11 +1,14 @@
 package com.osama.book.feedback;
 
 import com.osama.book.book.Book;
+import com.osama.book.book.BookCatalogCache;
 import com.osama.book.book.BookRepository;
 import com.osama.book.common.PageResponse;
 import com.osama.book.exception.OperationNotPermittedException;
 import com.osama.book.feedback.request.FeedbackRequest;
 import com.osama.book.feedback.response.FeedbackResponse;
+import com.osama.book.outbox.DomainEventType;
+import com.osama.book.outbox.OutboxEventPublisher;
 import com.osama.book.user.User;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +17,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Objects;
@@ -25,7 +29,10 @@ public class FeedbackService {
     private final BookRepository bookRepository;
     private final FeedbackMapper feedbackMapper;
     private final FeedbackRepository feedbackRepository;
+    private final BookCatalogCache bookCatalogCache;
+    private final OutboxEventPublisher outboxEventPublisher;
 
+    @Transactional
     public Integer saveFeedback(final FeedbackRequest request, final Authentication connectedUser) {
         final Book book = this.bookRepository.findById(request.bookId())
                 .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + request.bookId()));
@@ -40,7 +47,11 @@ public class FeedbackService {
         }
 
         Feedback feedBack = this.feedbackMapper.toFeedback(request);
-        return this.feedbackRepository.save(feedBack).getId();
+        final Integer feedbackId = this.feedbackRepository.save(feedBack).getId();
+        this.bookRepository.addRating(book.getId(), feedBack.getNote());
+        this.bookCatalogCache.evict(book.getId());
+        this.outboxEventPublisher.publish(DomainEventType.FEEDBACK_ADDED, book.getId(), user.getId(), feedbackId);
+        return feedbackId;
     }
 
     public PageResponse<FeedbackResponse> findAllFeedbacksByBookId(final Integer bookId, final int page, final int size, final Authentication connectedUser) {
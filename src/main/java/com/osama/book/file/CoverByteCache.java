@@ -0,0 +1,78 @@
+package com.osama.book.file;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+@Component
+public class CoverByteCache {
+
+    private final long maxEntrySize;
+    private final Cache<Path, CachedFile> files;
+
+    public CoverByteCache(
+            final MeterRegistry meterRegistry,
+            @Value("${application.cache.cover-bytes.max-size}") final DataSize maxSize,
+            @Value("${application.cache.cover-bytes.max-entry-size}") final DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.files = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<Path, CachedFile>weigher((path, file) -> file.content().capacity())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.files, "book.cover.bytes");
+        Gauge.builder("book.cover.bytes.resident", this.files,
+                        cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public Optional<ByteBuffer> get(@Nonnull Path path, @Nonnull BasicFileAttributes attributes) {
+        if (attributes.size() > this.maxEntrySize) {
+            return Optional.empty();
+        }
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        CachedFile file = this.files.get(path, key -> load(key, lastModified));
+        if (file.lastModified() != lastModified || file.content().limit() != attributes.size()) {
+            this.files.invalidate(path);
+            file = this.files.get(path, key -> load(key, lastModified));
+        }
+        return Optional.of(file.content().duplicate());
+    }
+
+    public void invalidate(@Nonnull Path path) {
+        this.files.invalidate(path);
+    }
+
+    private CachedFile load(final Path path, final long lastModified) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer content = ByteBuffer.allocateDirect(Math.toIntExact(channel.size()));
+            while (content.hasRemaining()) {
+                if (channel.read(content) == -1) {
+                    break;
+                }
+            }
+            content.flip();
+            return new CachedFile(content.asReadOnlyBuffer(), lastModified);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record CachedFile(ByteBuffer content, long lastModified) {}
+}
@@ -1,66 +1,228 @@
 package com.osama.book.file;
 
+import com.osama.book.exception.InvalidFileException;
 import jakarta.annotation.Nonnull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class FileStorageService {
 
-    @Value("${application.file.upload.photos-output-path}")
-    private String fileUploadPath;
-
-    public String saveFile(
-           @Nonnull MultipartFile sourceFile,
-           @Nonnull Integer userId) {
-       final String fileUploadSubPath = "users" + File.separator + userId;
-       return uploadFile(sourceFile, fileUploadSubPath);
-    }
-
-    private String uploadFile(
-            @Nonnull MultipartFile sourceFile,
-            @Nonnull String fileUploadSubPath) {
-        final String finalUploadPath = fileUploadPath + File.separator + fileUploadSubPath;
-        File targetFolder = new File(finalUploadPath);
-        if (!targetFolder.exists()) {
-            boolean folderCreated = targetFolder.mkdirs();
-            if (!folderCreated) {
-                log.warn("Failed to create the target folder");
-                return null;
-            }
+    private static final String COVERS_DIRECTORY = "covers";
+    private static final String TEMP_DIRECTORY = "tmp";
+    private static final String ORIGINAL_SUFFIX = ".original";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final StoredFileRepository storedFileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CoverByteCache coverByteCache;
+    private final String fileUploadPath;
+    private final long maxFileSize;
+
+    public FileStorageService(
+            final StoredFileRepository storedFileRepository,
+            final TransactionTemplate transactionTemplate,
+            final CoverByteCache coverByteCache,
+            @Value("${application.file.upload.photos-output-path}") final String fileUploadPath,
+            @Value("${application.file.upload.max-file-size}") final DataSize maxFileSize) {
+        this.storedFileRepository = storedFileRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.coverByteCache = coverByteCache;
+        this.fileUploadPath = fileUploadPath;
+        this.maxFileSize = maxFileSize.toBytes();
+    }
+
+    public String saveFile(@Nonnull MultipartFile sourceFile) {
+        if (sourceFile.getSize() > this.maxFileSize) {
+            throw new InvalidFileException("File exceeds the maximum size of " + this.maxFileSize + " bytes");
         }
-        final String fileExtension = getFileExtension(sourceFile.getOriginalFilename());
-        String targetFilePath = finalUploadPath + File.separator + System.currentTimeMillis() + "." + fileExtension;
-        Path targetPath = Paths.get(targetFilePath);
+        Path tempFile = null;
         try {
-            Files.write(targetPath, sourceFile.getBytes());
-            log.info("File saved to " + targetFilePath);
-            return targetFilePath;
-        } catch (IOException e) {
+            tempFile = createTempFile();
+            final String hash = copy(sourceFile, tempFile);
+            acquire(hash, Files.size(tempFile));
+            try {
+                moveAtomically(tempFile, getOriginal(hash));
+            } catch (IOException e) {
+                release(hash);
+                throw e;
+            }
+            log.info("File stored as {}", hash);
+            return hash;
+        } catch (IOException | NoSuchAlgorithmException e) {
             log.error("File was not saved", e);
+        } finally {
+            deleteQuietly(tempFile);
         }
         return null;
     }
 
-    private String getFileExtension(String filename) {
-        if (filename == null || filename.isEmpty()) {
-            return "";
+    public Path getOriginal(@Nonnull String hash) {
+        return resolve(hash, hash + ORIGINAL_SUFFIX);
+    }
+
+    public Path resolve(@Nonnull String hash, @Nonnull String fileName) {
+        return Path.of(fileUploadPath, COVERS_DIRECTORY, hash.substring(0, 2), hash.substring(2, 4), fileName);
+    }
+
+    public void writeAtomically(@Nonnull Path target, @Nonnull ContentWriter writer) throws IOException {
+        final Path tempFile = createTempFile();
+        try {
+            writer.write(tempFile);
+            moveAtomically(tempFile, target);
+            this.coverByteCache.invalidate(target);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    public void release(@Nonnull String hash) {
+        this.transactionTemplate.executeWithoutResult(status -> this.storedFileRepository.findForUpdate(hash)
+                .ifPresent(file -> {
+                    file.setRefCount(file.getRefCount() - 1);
+                    if (file.getRefCount() > 0) {
+                        return;
+                    }
+                    this.storedFileRepository.delete(file);
+                    deleteFilesAfterCommit(hash);
+                }));
+    }
+
+    private String copy(final MultipartFile sourceFile, final Path target) throws IOException, NoSuchAlgorithmException {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        final byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        final byte[] header = new byte[ImageSignature.MAX_LENGTH];
+        int headerLength = 0;
+        long size = 0;
+        try (InputStream input = sourceFile.getInputStream();
+             FileChannel output = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                size += read;
+                if (size > this.maxFileSize) {
+                    throw new InvalidFileException("File exceeds the maximum size of " + this.maxFileSize + " bytes");
+                }
+                if (headerLength < header.length) {
+                    final int headerBytes = Math.min(read, header.length - headerLength);
+                    System.arraycopy(buffer, 0, header, headerLength, headerBytes);
+                    headerLength += headerBytes;
+                    if (headerLength == header.length) {
+                        validateSignature(header, headerLength);
+                    }
+                }
+                digest.update(buffer, 0, read);
+                final ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    output.write(chunk);
+                }
+            }
+        }
+        if (headerLength < header.length) {
+            validateSignature(header, headerLength);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void validateSignature(final byte[] header, final int length) {
+        if (!ImageSignature.matches(header, length)) {
+            throw new InvalidFileException("Only JPEG, PNG and GIF images are accepted");
+        }
+    }
+
+    private void acquire(final String hash, final long size) {
+        try {
+            this.transactionTemplate.executeWithoutResult(status -> increment(hash, size));
+        } catch (DataIntegrityViolationException e) {
+            this.transactionTemplate.executeWithoutResult(status -> increment(hash, size));
+        }
+    }
+
+    private void increment(final String hash, final long size) {
+        final StoredFile file = this.storedFileRepository.findForUpdate(hash)
+                .orElseGet(() -> StoredFile.builder()
+                        .hash(hash)
+                        .size(size)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+        file.setRefCount(file.getRefCount() + 1);
+        this.storedFileRepository.saveAndFlush(file);
+    }
+
+    private void deleteFilesAfterCommit(final String hash) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (storedFileRepository.existsById(hash)) {
+                    return;
+                }
+                deleteFiles(hash);
+            }
+        });
+    }
+
+    private void deleteFiles(final String hash) {
+        final Path directory = resolve(hash, "");
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, hash + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+                this.coverByteCache.invalidate(file);
+            }
+            log.info("Deleted unreferenced files of {}", hash);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path createTempFile() throws IOException {
+        final Path tempDirectory = Path.of(fileUploadPath, TEMP_DIRECTORY);
+        Files.createDirectories(tempDirectory);
+        return Files.createTempFile(tempDirectory, "upload-", ".tmp");
+    }
+
+    private void moveAtomically(final Path source, final Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteQuietly(final Path file) {
+        if (file == null) {
+            return;
         }
-        int lastDotIndex = filename.lastIndexOf(".");
-        if (lastDotIndex == -1) {
-            return "";
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary file {}", file, e);
         }
-        return filename.substring(lastDotIndex + 1).toLowerCase();
+    }
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(Path target) throws IOException;
     }
 }
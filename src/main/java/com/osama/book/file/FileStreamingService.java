@@ -0,0 +1,127 @@
+package com.osama.book.file;
+
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileStreamingService {
+
+    private static final CacheControl VERSIONED_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic()
+            .immutable();
+    private static final CacheControl REVALIDATED_CACHE_CONTROL = CacheControl.noCache()
+            .cachePrivate();
+
+    private final CoverByteCache coverByteCache;
+
+    public void stream(
+            @Nonnull Path filePath,
+            boolean versioned,
+            @Nonnull HttpServletRequest request,
+            @Nonnull HttpServletResponse response) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        final long length = attributes.size();
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        final String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                (versioned ? VERSIONED_CACHE_CONTROL : REVALIDATED_CACHE_CONTROL).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long count = length;
+        final HttpRange range = resolveRange(request, etag, length);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            if (start >= length || end < start) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            count = end - start + 1;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(filePath.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString());
+        response.setContentLengthLong(count);
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+
+        final WritableByteChannel outputChannel = Channels.newChannel(response.getOutputStream());
+        final Optional<ByteBuffer> cached = this.coverByteCache.get(filePath, attributes);
+        if (cached.isPresent()) {
+            final ByteBuffer content = cached.get()
+                    .position((int) start)
+                    .limit((int) (start + count));
+            while (content.hasRemaining()) {
+                outputChannel.write(content);
+            }
+            return;
+        }
+
+        try (FileChannel fileChannel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = fileChannel.transferTo(position, remaining, outputChannel);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private HttpRange resolveRange(final HttpServletRequest request, final String etag, final long length) {
+        final String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        final String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        try {
+            final List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring invalid range header {}", rangeHeader);
+            return null;
+        }
+    }
+}
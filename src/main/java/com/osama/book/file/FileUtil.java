@@ -1,26 +0,0 @@
-package com.osama.book.file;
-
-import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
-
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-
-@Slf4j
-public class FileUtil {
-
-    public static byte[] readFileFromLocation(String fileUrl) {
-       if (StringUtils.isBlank(fileUrl)) {
-           return null;
-       }
-       try {
-           Path filePath = new File(fileUrl).toPath();
-           return Files.readAllBytes(filePath);
-       } catch (IOException e) {
-           log.error("No file found in the path {}", fileUrl);
-       }
-       return null;
-    }
-}
@@ -0,0 +1,23 @@
+package com.osama.book.file;
+
+import java.util.Arrays;
+
+enum ImageSignature {
+    JPEG(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+    PNG(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
+    GIF(new byte[]{'G', 'I', 'F', '8'});
+
+    static final int MAX_LENGTH = 8;
+
+    private final byte[] magic;
+
+    ImageSignature(final byte[] magic) {
+        this.magic = magic;
+    }
+
+    static boolean matches(final byte[] header, final int length) {
+        return Arrays.stream(values())
+                .anyMatch(signature -> length >= signature.magic.length
+                        && Arrays.equals(header, 0, signature.magic.length, signature.magic, 0, signature.magic.length));
+    }
+}
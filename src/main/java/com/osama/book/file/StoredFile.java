@@ -0,0 +1,22 @@
+package com.osama.book.file;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "stored_file")
+public class StoredFile {
+    @Id
+    @Column(length = 64)
+    private String hash;
+    private int refCount;
+    private long size;
+    private LocalDateTime createdAt;
+}
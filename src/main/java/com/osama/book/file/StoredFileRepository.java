@@ -0,0 +1,20 @@
+package com.osama.book.file;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT file
+            FROM StoredFile file
+            WHERE file.hash = :hash
+            """)
+    Optional<StoredFile> findForUpdate(@Param("hash") String hash);
+}
@@ -0,0 +1,73 @@
+package com.osama.book.file;
+
+import com.osama.book.exception.TooManyUploadsException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps concurrent multipart uploads per node before the body is read, so rejected requests never get spooled.
+ */
+@Component
+public class UploadLimitFilter extends OncePerRequestFilter {
+
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final Duration uploadPermitTimeout;
+    private final Semaphore uploadPermits;
+
+    public UploadLimitFilter(
+            @Qualifier("handlerExceptionResolver") final HandlerExceptionResolver handlerExceptionResolver,
+            @Value("${application.file.upload.max-concurrent-uploads}") final int maxConcurrentUploads,
+            @Value("${application.file.upload.permit-timeout}") final Duration uploadPermitTimeout) {
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.uploadPermitTimeout = uploadPermitTimeout;
+        this.uploadPermits = new Semaphore(maxConcurrentUploads, true);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getContentType() == null
+                || !request.getContentType().toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!acquireUploadPermit()) {
+            this.handlerExceptionResolver.resolveException(request, response, null,
+                    new TooManyUploadsException("Too many uploads in progress, please retry later"));
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            this.uploadPermits.release();
+        }
+    }
+
+    private boolean acquireUploadPermit() {
+        try {
+            return this.uploadPermits.tryAcquire(this.uploadPermitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
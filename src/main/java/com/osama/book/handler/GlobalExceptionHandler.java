@@ -1,8 +1,16 @@
 package com.osama.book.handler;
 
+import com.osama.book.exception.InvalidCursorException;
+import com.osama.book.exception.InvalidFileException;
+import com.osama.book.exception.InvalidImportFileException;
+import com.osama.book.exception.InvalidRequestParameterException;
 import com.osama.book.exception.OperationNotPermittedException;
+import com.osama.book.exception.TooManyExportsException;
+import com.osama.book.exception.TooManyUploadsException;
 import jakarta.mail.MessagingException;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -65,6 +73,70 @@ public class GlobalExceptionHandler {
                         .build());
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ExceptionResponse> handleException(InvalidCursorException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ExceptionResponse.builder()
+                        .error(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<ExceptionResponse> handleException(InvalidImportFileException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ExceptionResponse.builder()
+                        .error(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(InvalidFileException.class)
+    public ResponseEntity<ExceptionResponse> handleException(InvalidFileException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ExceptionResponse.builder()
+                        .error(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    public ResponseEntity<ExceptionResponse> handleException(InvalidRequestParameterException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ExceptionResponse.builder()
+                        .error(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(TooManyUploadsException.class)
+    public ResponseEntity<ExceptionResponse> handleException(TooManyUploadsException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ExceptionResponse.builder()
+                        .error(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(TooManyExportsException.class)
+    public ResponseEntity<ExceptionResponse> handleException(TooManyExportsException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ExceptionResponse.builder()
+                        .error(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ExceptionResponse> handleException(TaskRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ExceptionResponse.builder()
+                        .error("The server is busy, please retry later")
+                        .build());
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<ExceptionResponse> handleException(EntityNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ExceptionResponse.builder()
+                        .error(ex.getMessage())
+                        .build());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ExceptionResponse> handleException(MethodArgumentNotValidException ex) {
         Set<String> errors = new HashSet<>();
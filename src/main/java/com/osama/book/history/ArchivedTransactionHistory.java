@@ -0,0 +1,41 @@
+package com.osama.book.history;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "transaction_history_archive", indexes = {
+        @Index(name = "idx_transaction_history_archive_user", columnList = "user_id, created_date, id"),
+        @Index(name = "idx_transaction_history_archive_book", columnList = "book_id"),
+        @Index(name = "idx_transaction_history_archive_owner", columnList = "owner_id, created_date, id"),
+        @Index(name = "idx_transaction_history_archive_created", columnList = "created_date"),
+        @Index(name = "idx_transaction_history_archive_returned_date", columnList = "returned_date"),
+        @Index(name = "idx_transaction_history_archive_approved_date", columnList = "approved_date")
+})
+public class ArchivedTransactionHistory {
+    @Id
+    private Integer id;
+    @Column(name = "user_id")
+    private Integer userId;
+    @Column(name = "book_id")
+    private Integer bookId;
+    @Column(name = "owner_id")
+    private Integer ownerId;
+    private boolean returned;
+    private boolean returnedApprove;
+    private LocalDateTime createdDate;
+    private LocalDateTime dueDate;
+    private LocalDateTime returnedDate;
+    private LocalDateTime approvedDate;
+    private Integer createdBy;
+    private LocalDateTime lastModifiedDate;
+    private Integer lastModifiedBy;
+    private LocalDateTime archivedAt;
+}
@@ -1,39 +1,149 @@
 package com.osama.book.history;
 
+import com.osama.book.trending.TrendingSignal;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface BookTransactionRepository extends JpaRepository<TransactionHistory, Integer> {
 
+    @Query(value = """
+            SELECT new com.osama.book.history.BorrowedBookSummary(
+                history.id, history.createdDate,
+                book.id, book.title, book.authorName, book.isbn, book.rate,
+                history.returned, history.returnedApprove, history.dueDate)
+            FROM TransactionHistoryEntry history
+            JOIN history.book book
+            WHERE history.user.id = :userId
+            """,
+            countQuery = """
+            SELECT COUNT(history)
+            FROM TransactionHistoryEntry history
+            WHERE history.user.id = :userId
+            """)
+    Page<BorrowedBookSummary> findAllBorrowedBooks(Pageable pageable, @Param("userId") Integer userId);
+
+    @Query(value = """
+            SELECT new com.osama.book.history.BorrowedBookSummary(
+                history.id, history.createdDate,
+                book.id, book.title, book.authorName, book.isbn, book.rate,
+                history.returned, history.returnedApprove, history.dueDate)
+            FROM TransactionHistoryEntry history
+            JOIN history.book book
+            WHERE history.ownerId = :userId
+            """,
+            countQuery = """
+            SELECT COUNT(history)
+            FROM TransactionHistoryEntry history
+            WHERE history.ownerId = :userId
+            """)
+    Page<BorrowedBookSummary> findAllReturnedBooks(Pageable pageable, @Param("userId") Integer userId);
+
     @Query("""
-            SELECT history
-            FROM TransactionHistory history
+            SELECT new com.osama.book.history.BorrowedBookSummary(
+                history.id, history.createdDate,
+                book.id, book.title, book.authorName, book.isbn, book.rate,
+                history.returned, history.returnedApprove, history.dueDate)
+            FROM TransactionHistoryEntry history
+            JOIN history.book book
             WHERE history.user.id = :userId
+            AND (history.createdDate < :createdDate OR (history.createdDate = :createdDate AND history.id < :id))
+            ORDER BY history.createdDate DESC, history.id DESC
+            """)
+    List<BorrowedBookSummary> findBorrowedBooksBefore(
+            @Param("userId") Integer userId,
+            @Param("createdDate") LocalDateTime createdDate,
+            @Param("id") Integer id,
+            Limit limit);
+
+    @Query("""
+            SELECT new com.osama.book.history.BorrowedBookSummary(
+                history.id, history.createdDate,
+                book.id, book.title, book.authorName, book.isbn, book.rate,
+                history.returned, history.returnedApprove, history.dueDate)
+            FROM TransactionHistoryEntry history
+            JOIN history.book book
+            WHERE history.ownerId = :userId
+            AND (history.createdDate < :createdDate OR (history.createdDate = :createdDate AND history.id < :id))
+            ORDER BY history.createdDate DESC, history.id DESC
             """)
-    Page<TransactionHistory> findAllBorrowedBooks(Pageable pageable, @Param("userId") Integer userId);
+    List<BorrowedBookSummary> findReturnedBooksBefore(
+            @Param("userId") Integer userId,
+            @Param("createdDate") LocalDateTime createdDate,
+            @Param("id") Integer id,
+            Limit limit);
 
     @Query("""
-            SELECT history
-            FROM TransactionHistory history
-            WHERE history.book.owner.id = :userId
+            SELECT new com.osama.book.history.BorrowPair(transaction.id, transaction.user.id, transaction.book.id)
+            FROM TransactionHistory transaction
+            WHERE transaction.id > :lastId
+            ORDER BY transaction.id
+            """)
+    List<BorrowPair> findBorrowPairsAfter(@Param("lastId") Integer lastId, Limit limit);
+
+    @Query("""
+            SELECT new com.osama.book.history.BorrowPair(transaction.id, transaction.userId, transaction.bookId)
+            FROM ArchivedTransactionHistory transaction
+            WHERE transaction.id > :lastId
+            ORDER BY transaction.id
+            """)
+    List<BorrowPair> findArchivedBorrowPairsAfter(@Param("lastId") Integer lastId, Limit limit);
+
+    @Query("""
+            SELECT new com.osama.book.trending.TrendingSignal(transaction.id, transaction.book.id, transaction.createdDate)
+            FROM TransactionHistory transaction
+            WHERE transaction.createdDate >= :since
+            AND transaction.id > :lastId
+            ORDER BY transaction.id
             """)
-    Page<TransactionHistory> findAllReturnedBooks(Pageable pageable, @Param("userId") Integer userId);
+    List<TrendingSignal> findBorrowSignalsAfter(@Param("since") LocalDateTime since, @Param("lastId") Integer lastId, Limit limit);
 
     @Query("""
-            SELECT transactionHistory
-            (COUNT(*) > 0) AS isBorrowed
-            FROM TransactionHistory transactionHistory
-            WHERE transactionHistory.user.id =: userId
-            AND transactionHistory.book.id =: bookId
-            AND transactionHistory.returnedApprove = false
+            SELECT COUNT(transaction) > 0
+            FROM TransactionHistory transaction
+            WHERE transaction.book.id = :bookId
+            AND transaction.returnedApprove = false
+            """)
+    boolean isAlreadyBorrowed(final @Param("bookId") Integer bookId);
+
+
+    @Query("""
+            SELECT transaction.book.id
+            FROM TransactionHistory transaction
+            WHERE transaction.book.id IN :bookIds
+            AND transaction.returnedApprove = false
+            """)
+    Set<Integer> findBorrowedBookIds(final @Param("bookIds") Collection<Integer> bookIds);
+
+    @Query("""
+            SELECT transaction
+            FROM TransactionHistory transaction
+            WHERE transaction.user.id = :userId
+            AND transaction.book.id IN :bookIds
+            AND transaction.returned = false
+            AND transaction.returnedApprove = false
             """)
-    boolean isAlreadyBorrowed(final @Param("bookId") Integer bookId, final @Param("userId") Integer userId);
+    List<TransactionHistory> findAllByBookIdInAndUserId(final @Param("bookIds") Collection<Integer> bookIds, final @Param("userId") Integer userId);
 
+    @Query("""
+            SELECT transaction
+            FROM TransactionHistory transaction
+            WHERE transaction.ownerId = :ownerId
+            AND transaction.book.id IN :bookIds
+            AND transaction.returned = true
+            AND transaction.returnedApprove = false
+            """)
+    List<TransactionHistory> findAllByBookIdInAndOwnerId(final @Param("bookIds") Collection<Integer> bookIds, final @Param("ownerId") Integer ownerId);
 
     @Query("""
             SELECT transaction
@@ -49,10 +159,83 @@ public interface BookTransactionRepository extends JpaRepository<TransactionHist
     @Query("""
             SELECT transaction
             FROM TransactionHistory transaction
-            WHERE transaction.book.owner.id = :OwnerId
+            WHERE transaction.ownerId = :OwnerId
             AND transaction.book.id = :bookId
             AND transaction.returned = true
             AND transaction.returnedApprove = false
             """)
     Optional<TransactionHistory> findByBookIdAndOwnerId(final @Param("bookId") Integer bookId, final @Param("OwnerId") Integer OwnerId);
+
+    @Query("""
+            SELECT COALESCE(MAX(transaction.id), 0)
+            FROM TransactionHistory transaction
+            """)
+    Integer findMaxId();
+
+    @Query("""
+            SELECT COALESCE(MAX(transaction.id), 0)
+            FROM ArchivedTransactionHistory transaction
+            """)
+    Integer findMaxArchivedId();
+
+    @Query("""
+            SELECT MIN(transaction.id)
+            FROM TransactionHistory transaction
+            WHERE transaction.ownerId IS NULL
+            """)
+    Integer findFirstIdWithoutOwner();
+
+    @Query("""
+            SELECT MIN(transaction.id)
+            FROM ArchivedTransactionHistory transaction
+            WHERE transaction.ownerId IS NULL
+            """)
+    Integer findFirstArchivedIdWithoutOwner();
+
+    @Modifying
+    @Query("""
+            UPDATE TransactionHistory transaction
+            SET transaction.ownerId = (SELECT book.owner.id FROM Book book WHERE book.id = transaction.book.id)
+            WHERE transaction.id BETWEEN :fromId AND :toId
+            AND transaction.ownerId IS NULL
+            """)
+    int backfillOwners(final @Param("fromId") Integer fromId, final @Param("toId") Integer toId);
+
+    @Modifying
+    @Query("""
+            UPDATE ArchivedTransactionHistory transaction
+            SET transaction.ownerId = (SELECT book.owner.id FROM Book book WHERE book.id = transaction.bookId)
+            WHERE transaction.id BETWEEN :fromId AND :toId
+            AND transaction.ownerId IS NULL
+            """)
+    int backfillArchivedOwners(final @Param("fromId") Integer fromId, final @Param("toId") Integer toId);
+
+    @Query("""
+            SELECT new com.osama.book.history.OverdueLoan(
+                transaction.id, transaction.dueDate, book.title,
+                user.email, user.firstName, user.lastName)
+            FROM TransactionHistory transaction
+            JOIN transaction.book book
+            JOIN transaction.user user
+            WHERE transaction.returned = false
+            AND transaction.dueDate >= :lastDueDate
+            AND transaction.dueDate < :now
+            AND (transaction.dueDate > :lastDueDate OR transaction.id > :lastId)
+            AND (transaction.remindedAt IS NULL OR transaction.remindedAt < :remindedBefore)
+            ORDER BY transaction.dueDate, transaction.id
+            """)
+    List<OverdueLoan> findOverdue(
+            final @Param("now") LocalDateTime now,
+            final @Param("lastDueDate") LocalDateTime lastDueDate,
+            final @Param("lastId") Integer lastId,
+            final @Param("remindedBefore") LocalDateTime remindedBefore,
+            final Limit limit);
+
+    @Modifying
+    @Query("""
+            UPDATE TransactionHistory transaction
+            SET transaction.remindedAt = :remindedAt
+            WHERE transaction.id IN :ids
+            """)
+    int markReminded(final @Param("ids") Collection<Integer> ids, final @Param("remindedAt") LocalDateTime remindedAt);
 }
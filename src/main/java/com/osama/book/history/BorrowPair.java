@@ -0,0 +1,7 @@
+package com.osama.book.history;
+
+public record BorrowPair(
+        Integer id,
+        Integer userId,
+        Integer bookId
+) {}
@@ -0,0 +1,16 @@
+package com.osama.book.history;
+
+import java.time.LocalDateTime;
+
+public record BorrowedBookSummary(
+        Integer id,
+        LocalDateTime createdDate,
+        Integer bookId,
+        String title,
+        String authorName,
+        String isbn,
+        double rate,
+        boolean returned,
+        boolean returnedApprove,
+        LocalDateTime dueDate
+) {}
@@ -0,0 +1,12 @@
+package com.osama.book.history;
+
+import java.time.LocalDateTime;
+
+public record OverdueLoan(
+        Integer id,
+        LocalDateTime dueDate,
+        String bookTitle,
+        String email,
+        String firstName,
+        String lastName
+) {}
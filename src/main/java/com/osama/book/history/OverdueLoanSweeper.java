@@ -0,0 +1,155 @@
+package com.osama.book.history;
+
+import com.osama.book.email.EmailMessage;
+import com.osama.book.email.EmailQueue;
+import com.osama.book.email.EmailTemplateName;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@Slf4j
+public class OverdueLoanSweeper {
+
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final BookTransactionRepository transactionRepository;
+    private final EmailQueue emailQueue;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration reminderInterval;
+    private final Counter remindersCounter;
+    private final ThreadPoolTaskExecutor executor;
+    private final Set<Integer> queuedReminders = ConcurrentHashMap.newKeySet();
+
+    public OverdueLoanSweeper(
+            final BookTransactionRepository transactionRepository,
+            final EmailQueue emailQueue,
+            final TransactionTemplate transactionTemplate,
+            final MeterRegistry meterRegistry,
+            @Value("${application.loan.overdue.batch-size}") final int batchSize,
+            @Value("${application.loan.overdue.parallelism}") final int parallelism,
+            @Value("${application.loan.overdue.reminder-interval}") final Duration reminderInterval) {
+        this.transactionRepository = transactionRepository;
+        this.emailQueue = emailQueue;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.reminderInterval = reminderInterval;
+        this.remindersCounter = Counter.builder("book.loan.overdue.reminders")
+                .register(meterRegistry);
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(parallelism);
+        this.executor.setMaxPoolSize(parallelism);
+        this.executor.setQueueCapacity(parallelism);
+        this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.setThreadNamePrefix("overdue-");
+        this.executor.initialize();
+    }
+
+    @Scheduled(fixedDelayString = "${application.loan.overdue.sweep-interval}")
+    public void sweep() {
+        final LocalDateTime now = LocalDateTime.now();
+        final LocalDateTime remindedBefore = now.minus(this.reminderInterval);
+        final AtomicBoolean queueFull = new AtomicBoolean();
+        final List<Future<Integer>> batches = new ArrayList<>();
+        LocalDateTime lastDueDate = KEYSET_START;
+        int lastId = 0;
+        List<OverdueLoan> batch;
+        do {
+            batch = this.transactionRepository.findOverdue(now, lastDueDate, lastId, remindedBefore, Limit.of(this.batchSize));
+            if (!batch.isEmpty()) {
+                final OverdueLoan last = batch.get(batch.size() - 1);
+                lastDueDate = last.dueDate();
+                lastId = last.id();
+                final List<OverdueLoan> loans = batch;
+                batches.add(this.executor.submit(() -> remind(loans, queueFull)));
+            }
+        } while (batch.size() == this.batchSize && !queueFull.get());
+
+        int queued = 0;
+        for (Future<Integer> queuedBatch : batches) {
+            try {
+                queued += queuedBatch.get();
+            } catch (ExecutionException e) {
+                log.warn("Overdue reminder batch failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (queued > 0) {
+            log.info("Queued {} overdue loan reminders{}", queued, queueFull.get() ? ", email queue is full" : "");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    private int remind(final List<OverdueLoan> loans, final AtomicBoolean queueFull) {
+        int queued = 0;
+        for (OverdueLoan loan : loans) {
+            if (queueFull.get()) {
+                break;
+            }
+            if (!this.queuedReminders.add(loan.id())) {
+                continue;
+            }
+            final CompletableFuture<Void> sent = new CompletableFuture<>();
+            if (!this.emailQueue.offer(toEmail(loan), sent)) {
+                this.queuedReminders.remove(loan.id());
+                queueFull.set(true);
+                break;
+            }
+            sent.whenComplete((ignored, failure) -> reminderFinished(loan.id(), failure == null));
+            queued++;
+        }
+        return queued;
+    }
+
+    private void reminderFinished(final Integer loanId, final boolean sent) {
+        try {
+            if (sent) {
+                this.transactionTemplate.executeWithoutResult(status ->
+                        this.transactionRepository.markReminded(List.of(loanId), LocalDateTime.now()));
+                this.remindersCounter.increment();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not record the overdue reminder of loan {}", loanId, e);
+        } finally {
+            this.queuedReminders.remove(loanId);
+        }
+    }
+
+    private EmailMessage toEmail(final OverdueLoan loan) {
+        return new EmailMessage(
+                loan.email(),
+                "Overdue loan: " + loan.bookTitle(),
+                EmailTemplateName.OVERDUE_LOAN,
+                Map.of(
+                        "username", loan.firstName() + " " + loan.lastName(),
+                        "bookTitle", loan.bookTitle(),
+                        "dueDate", loan.dueDate()));
+    }
+}
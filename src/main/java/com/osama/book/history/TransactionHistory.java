@@ -4,20 +4,36 @@ import com.osama.book.book.Book;
 import com.osama.book.common.BaseEntity;
 import com.osama.book.user.User;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @SuperBuilder
 @Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "uk_transaction_history_active_book", columnNames = "active_book_id"),
+        indexes = {
+                @Index(name = "idx_transaction_history_user", columnList = "user_id, created_date, id"),
+                @Index(name = "idx_transaction_history_book", columnList = "book_id, returned_approve, returned"),
+                @Index(name = "idx_transaction_history_owner", columnList = "owner_id, returned, returned_approve, created_date"),
+                @Index(name = "idx_transaction_history_due", columnList = "returned, due_date, id"),
+                @Index(name = "idx_transaction_history_created", columnList = "created_date"),
+                @Index(name = "idx_transaction_history_returned_date", columnList = "returned_date"),
+                @Index(name = "idx_transaction_history_approved_date", columnList = "approved_date")
+        })
 public class TransactionHistory extends BaseEntity {
 
     @ManyToOne
@@ -30,4 +46,10 @@ public class TransactionHistory extends BaseEntity {
 
     private boolean returned;
     private boolean returnedApprove;
+    private Integer activeBookId;
+    private Integer ownerId;
+    private LocalDateTime dueDate;
+    private LocalDateTime remindedAt;
+    private LocalDateTime returnedDate;
+    private LocalDateTime approvedDate;
 }
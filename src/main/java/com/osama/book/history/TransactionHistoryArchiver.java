@@ -0,0 +1,91 @@
+package com.osama.book.history;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@Slf4j
+public class TransactionHistoryArchiver {
+
+    private static final String SELECT_ARCHIVABLE = """
+            SELECT id
+            FROM transaction_history
+            WHERE id > :lastId
+            AND returned = true
+            AND returned_approve = true
+            AND COALESCE(last_modified_date, created_date) < :cutoff
+            ORDER BY id
+            LIMIT :batchSize
+            """;
+    private static final String COPY_TO_ARCHIVE = """
+            INSERT INTO transaction_history_archive (id, user_id, book_id, owner_id, returned, returned_approve,
+                created_date, due_date, returned_date, approved_date, created_by, last_modified_date, last_modified_by, archived_at)
+            SELECT id, user_id, book_id, owner_id, returned, returned_approve,
+                created_date, due_date, returned_date, approved_date, created_by, last_modified_date, last_modified_by, :archivedAt
+            FROM transaction_history
+            WHERE id IN (:ids)
+            """;
+    private static final String DELETE_ARCHIVED = """
+            DELETE FROM transaction_history
+            WHERE id IN (:ids)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration minAge;
+    private final int batchSize;
+
+    public TransactionHistoryArchiver(
+            final NamedParameterJdbcTemplate jdbcTemplate,
+            final TransactionTemplate transactionTemplate,
+            @Value("${application.history.archive.min-age}") final Duration minAge,
+            @Value("${application.history.archive.batch-size}") final int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${application.history.archive.interval}")
+    public void archive() {
+        final LocalDateTime cutoff = LocalDateTime.now().minus(this.minAge);
+        int lastId = 0;
+        int archived = 0;
+        List<Integer> batch;
+        do {
+            batch = this.jdbcTemplate.queryForList(SELECT_ARCHIVABLE, new MapSqlParameterSource()
+                    .addValue("lastId", lastId)
+                    .addValue("cutoff", Timestamp.valueOf(cutoff))
+                    .addValue("batchSize", this.batchSize), Integer.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            archived += moveToArchive(batch);
+            lastId = batch.get(batch.size() - 1);
+        } while (batch.size() == this.batchSize);
+        if (archived > 0) {
+            log.info("Archived {} completed transactions older than {}", archived, cutoff);
+        }
+    }
+
+    private int moveToArchive(final List<Integer> ids) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+        final Integer moved = this.transactionTemplate.execute(status -> {
+            this.jdbcTemplate.update(COPY_TO_ARCHIVE, parameters);
+            return this.jdbcTemplate.update(DELETE_ARCHIVED, parameters);
+        });
+        return moved == null ? 0 : moved;
+    }
+}
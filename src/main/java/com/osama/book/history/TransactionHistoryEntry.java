@@ -0,0 +1,45 @@
+package com.osama.book.history;
+
+import com.osama.book.book.Book;
+import com.osama.book.user.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.time.LocalDateTime;
+
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Subselect("""
+        SELECT id, user_id, book_id, owner_id, returned, returned_approve, created_date, due_date
+        FROM transaction_history
+        UNION ALL
+        SELECT id, user_id, book_id, owner_id, returned, returned_approve, created_date, due_date
+        FROM transaction_history_archive
+        """)
+@Synchronize({"transaction_history", "transaction_history_archive"})
+public class TransactionHistoryEntry {
+    @Id
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id")
+    private Book book;
+
+    @Column(name = "owner_id")
+    private Integer ownerId;
+
+    private boolean returned;
+    private boolean returnedApprove;
+    private LocalDateTime createdDate;
+    private LocalDateTime dueDate;
+}
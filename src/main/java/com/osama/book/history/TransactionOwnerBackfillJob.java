@@ -0,0 +1,46 @@
+package com.osama.book.history;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.BiFunction;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "application.history.owner-backfill-on-startup", havingValue = "true")
+public class TransactionOwnerBackfillJob implements CommandLineRunner {
+
+    private final BookTransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.history.owner-backfill-batch-size}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        final int updated = backfill(this.transactionRepository.findFirstIdWithoutOwner(),
+                this.transactionRepository.findMaxId(), this.transactionRepository::backfillOwners);
+        final int archivedUpdated = backfill(this.transactionRepository.findFirstArchivedIdWithoutOwner(),
+                this.transactionRepository.findMaxArchivedId(), this.transactionRepository::backfillArchivedOwners);
+        log.info("Backfilled owner of {} transactions", updated + archivedUpdated);
+    }
+
+    private int backfill(final Integer firstId, final int maxId, final BiFunction<Integer, Integer, Integer> batch) {
+        if (firstId == null) {
+            return 0;
+        }
+        int updated = 0;
+        for (int fromId = firstId; fromId <= maxId; fromId += batchSize) {
+            final int toId = fromId + batchSize - 1;
+            final int from = fromId;
+            updated += this.transactionTemplate.execute(status -> batch.apply(from, toId));
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,12 @@
+package com.osama.book.outbox;
+
+import java.time.LocalDateTime;
+
+public record DomainEvent(
+        Long id,
+        DomainEventType type,
+        Integer bookId,
+        Integer userId,
+        Integer referenceId,
+        LocalDateTime occurredAt
+) {}
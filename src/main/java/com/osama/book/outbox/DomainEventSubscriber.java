@@ -0,0 +1,6 @@
+package com.osama.book.outbox;
+
+public interface DomainEventSubscriber {
+
+    void onEvent(DomainEvent event);
+}
@@ -0,0 +1,8 @@
+package com.osama.book.outbox;
+
+public enum DomainEventType {
+    BOOK_BORROWED,
+    BOOK_RETURNED,
+    RETURN_APPROVED,
+    FEEDBACK_ADDED
+}
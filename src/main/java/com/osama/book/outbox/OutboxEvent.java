@@ -0,0 +1,33 @@
+package com.osama.book.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_event_pending", columnList = "attempts, id"),
+        @Index(name = "idx_outbox_event_due", columnList = "next_attempt_at, id"),
+        @Index(name = "idx_outbox_event_book", columnList = "book_id, id")
+})
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private DomainEventType type;
+    private Integer bookId;
+    private Integer userId;
+    private Integer referenceId;
+    private LocalDateTime createdAt;
+    private LocalDateTime nextAttemptAt;
+    private int attempts;
+    private String lastError;
+}
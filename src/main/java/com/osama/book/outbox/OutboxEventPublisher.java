@@ -0,0 +1,28 @@
+package com.osama.book.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxEventPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(final DomainEventType type, final Integer bookId, final Integer userId, final Integer referenceId) {
+        final LocalDateTime now = LocalDateTime.now();
+        this.outboxEventRepository.save(OutboxEvent.builder()
+                .type(type)
+                .bookId(bookId)
+                .userId(userId)
+                .referenceId(referenceId)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+    }
+}
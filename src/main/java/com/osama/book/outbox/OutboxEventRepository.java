@@ -0,0 +1,54 @@
+package com.osama.book.outbox;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT event
+            FROM OutboxEvent event
+            WHERE event.nextAttemptAt <= :now
+            AND event.attempts < :maxAttempts
+            AND NOT EXISTS (
+                SELECT earlier
+                FROM OutboxEvent earlier
+                WHERE earlier.bookId = event.bookId
+                AND earlier.id < event.id
+                AND (earlier.nextAttemptAt > :now OR earlier.attempts >= :maxAttempts)
+            )
+            ORDER BY event.id
+            """)
+    List<OutboxEvent> findDueForUpdate(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts, Limit limit);
+
+    @Modifying
+    @Query("""
+            UPDATE OutboxEvent event
+            SET event.nextAttemptAt = event.createdAt
+            WHERE event.nextAttemptAt IS NULL
+            """)
+    int scheduleUnscheduled();
+
+    @Query("""
+            SELECT MIN(event.createdAt)
+            FROM OutboxEvent event
+            WHERE event.attempts < :maxAttempts
+            """)
+    LocalDateTime findOldestPendingCreatedAt(@Param("maxAttempts") int maxAttempts);
+
+    @Query("""
+            SELECT COUNT(event)
+            FROM OutboxEvent event
+            WHERE event.attempts >= :maxAttempts
+            """)
+    long countExhausted(@Param("maxAttempts") int maxAttempts);
+}
@@ -0,0 +1,161 @@
+package com.osama.book.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<DomainEventSubscriber> subscribers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration claimTimeout;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong exhaustedEvents = new AtomicLong();
+    private final Timer deliveryTimer;
+    private final Counter failureCounter;
+
+    public OutboxRelay(
+            final OutboxEventRepository outboxEventRepository,
+            final List<DomainEventSubscriber> subscribers,
+            final TransactionTemplate transactionTemplate,
+            final MeterRegistry meterRegistry,
+            @Value("${application.outbox.batch-size}") final int batchSize,
+            @Value("${application.outbox.max-attempts}") final int maxAttempts,
+            @Value("${application.outbox.claim-timeout}") final Duration claimTimeout,
+            @Value("${application.outbox.retry-backoff}") final Duration retryBackoff,
+            @Value("${application.outbox.max-retry-backoff}") final Duration maxRetryBackoff) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.subscribers = subscribers;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.claimTimeout = claimTimeout;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.deliveryTimer = Timer.builder("book.outbox.delivery")
+                .description("Time from an event being written to the outbox until it is delivered")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("book.outbox.failures")
+                .register(meterRegistry);
+        Gauge.builder("book.outbox.lag", this.lagMillis, AtomicLong::get)
+                .description("Age of the oldest undelivered outbox event")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("book.outbox.exhausted", this.exhaustedEvents, AtomicLong::get)
+                .description("Outbox events that used up their delivery attempts and block the later events of their book")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleUnscheduledEvents() {
+        final Integer scheduled = this.transactionTemplate.execute(status -> this.outboxEventRepository.scheduleUnscheduled());
+        if (scheduled != null && scheduled > 0) {
+            log.info("Scheduled {} outbox events written before delivery scheduling", scheduled);
+        }
+    }
+
+    /**
+     * Events are claimed in a short transaction that pushes their next attempt past the claim timeout, so the
+     * subscribers run without holding row locks, and an event claimed by a relay that died becomes due again.
+     * An event waiting out its backoff, or one that used up its attempts, holds back the later events of its book.
+     */
+    @Scheduled(fixedDelayString = "${application.outbox.poll-interval}")
+    public void relay() {
+        List<OutboxEvent> claimed;
+        do {
+            claimed = this.transactionTemplate.execute(status -> claimBatch());
+            deliver(claimed);
+        } while (claimed.size() == this.batchSize);
+        final LocalDateTime oldest = this.outboxEventRepository.findOldestPendingCreatedAt(this.maxAttempts);
+        this.lagMillis.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+        this.exhaustedEvents.set(this.outboxEventRepository.countExhausted(this.maxAttempts));
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        final LocalDateTime now = LocalDateTime.now();
+        final List<OutboxEvent> events = this.outboxEventRepository.findDueForUpdate(now, this.maxAttempts, Limit.of(this.batchSize));
+        events.forEach(event -> event.setNextAttemptAt(now.plus(this.claimTimeout)));
+        return events;
+    }
+
+    private void deliver(final List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        final Set<Integer> blockedBooks = new HashSet<>();
+        final List<OutboxEvent> delivered = new ArrayList<>();
+        final List<OutboxEvent> undelivered = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (blockedBooks.contains(event.getBookId())) {
+                event.setNextAttemptAt(LocalDateTime.now());
+                undelivered.add(event);
+                continue;
+            }
+            try {
+                dispatch(event);
+                delivered.add(event);
+                this.deliveryTimer.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                blockedBooks.add(event.getBookId());
+                event.setAttempts(event.getAttempts() + 1);
+                event.setLastError(StringUtils.abbreviate(e.getMessage(), 255));
+                event.setNextAttemptAt(LocalDateTime.now().plus(backoff(event.getAttempts())));
+                undelivered.add(event);
+                this.failureCounter.increment();
+                if (event.getAttempts() >= this.maxAttempts) {
+                    log.error("Outbox event {} for book {} used up its {} attempts and now blocks the book's later events",
+                            event.getId(), event.getBookId(), this.maxAttempts, e);
+                } else {
+                    log.warn("Delivery of outbox event {} failed on attempt {}", event.getId(), event.getAttempts(), e);
+                }
+            }
+        }
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.outboxEventRepository.deleteAllInBatch(delivered);
+            this.outboxEventRepository.saveAll(undelivered);
+        });
+    }
+
+    private Duration backoff(final int attempts) {
+        final Duration backoff = this.retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(this.maxRetryBackoff) > 0 ? this.maxRetryBackoff : backoff;
+    }
+
+    private void dispatch(final OutboxEvent event) {
+        final DomainEvent domainEvent = new DomainEvent(
+                event.getId(),
+                event.getType(),
+                event.getBookId(),
+                event.getUserId(),
+                event.getReferenceId(),
+                event.getCreatedAt());
+        for (DomainEventSubscriber subscriber : this.subscribers) {
+            subscriber.onEvent(domainEvent);
+        }
+    }
+}
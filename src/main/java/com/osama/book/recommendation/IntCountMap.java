@@ -0,0 +1,109 @@
+package com.osama.book.recommendation;
+
+import java.util.Arrays;
+
+final class IntCountMap {
+
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] counts;
+    private int size;
+
+    IntCountMap() {
+        this(4);
+    }
+
+    IntCountMap(final int expectedSize) {
+        final int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new int[capacity];
+        this.counts = new int[capacity];
+    }
+
+    int increment(final int key, final int delta) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int slot = slot(key, this.keys);
+        if (this.keys[slot] == EMPTY) {
+            if (this.size + 1 > this.keys.length * LOAD_FACTOR) {
+                resize();
+                slot = slot(key, this.keys);
+            }
+            this.keys[slot] = key;
+            this.size++;
+        }
+        this.counts[slot] += delta;
+        return this.counts[slot];
+    }
+
+    int get(final int key) {
+        final int slot = slot(key, this.keys);
+        return this.keys[slot] == key ? this.counts[slot] : 0;
+    }
+
+    boolean contains(final int key) {
+        return key != EMPTY && this.keys[slot(key, this.keys)] == key;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    void forEach(final EntryConsumer consumer) {
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] != EMPTY) {
+                consumer.accept(this.keys[i], this.counts[i]);
+            }
+        }
+    }
+
+    void addAll(final IntCountMap other) {
+        other.forEach(this::increment);
+    }
+
+    int[] keys() {
+        final int[] result = new int[this.size];
+        int index = 0;
+        for (int key : this.keys) {
+            if (key != EMPTY) {
+                result[index++] = key;
+            }
+        }
+        return result;
+    }
+
+    private void resize() {
+        final int[] oldKeys = this.keys;
+        final int[] oldCounts = this.counts;
+        this.keys = new int[oldKeys.length << 1];
+        this.counts = new int[oldCounts.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                final int slot = slot(oldKeys[i], this.keys);
+                this.keys[slot] = oldKeys[i];
+                this.counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int slot(final int key, final int[] keys) {
+        final int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9) >>> 16 & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return "IntCountMap" + Arrays.toString(keys());
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(int key, int count);
+    }
+}
@@ -0,0 +1,71 @@
+package com.osama.book.recommendation;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+final class Neighbours {
+
+    private final int capacity;
+    private final IntCountMap counts;
+    private int[] top = new int[0];
+
+    Neighbours(final int capacity) {
+        this(capacity, new IntCountMap());
+    }
+
+    Neighbours(final int capacity, final IntCountMap counts) {
+        this.capacity = capacity;
+        this.counts = counts;
+        rank();
+    }
+
+    void increment(final int bookId) {
+        final int count = this.counts.increment(bookId, 1);
+        int index = indexOf(bookId);
+        if (index < 0) {
+            if (this.top.length < this.capacity) {
+                this.top = Arrays.copyOf(this.top, this.top.length + 1);
+            } else if (!ranksBefore(bookId, count, this.top[this.top.length - 1])) {
+                return;
+            }
+            index = this.top.length - 1;
+            this.top[index] = bookId;
+        }
+        while (index > 0 && ranksBefore(bookId, count, this.top[index - 1])) {
+            this.top[index] = this.top[index - 1];
+            this.top[--index] = bookId;
+        }
+    }
+
+    int[] top() {
+        return this.top;
+    }
+
+    private void rank() {
+        final int[] bookIds = this.counts.keys();
+        final Integer[] ranked = new Integer[bookIds.length];
+        for (int i = 0; i < bookIds.length; i++) {
+            ranked[i] = bookIds[i];
+        }
+        Arrays.sort(ranked, Comparator.<Integer>comparingInt(this.counts::get).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        this.top = new int[Math.min(this.capacity, ranked.length)];
+        for (int i = 0; i < this.top.length; i++) {
+            this.top[i] = ranked[i];
+        }
+    }
+
+    private boolean ranksBefore(final int bookId, final int count, final int otherBookId) {
+        final int otherCount = this.counts.get(otherBookId);
+        return count > otherCount || (count == otherCount && bookId < otherBookId);
+    }
+
+    private int indexOf(final int bookId) {
+        for (int i = 0; i < this.top.length; i++) {
+            if (this.top[i] == bookId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
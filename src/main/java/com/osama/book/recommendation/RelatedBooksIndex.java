@@ -0,0 +1,196 @@
+package com.osama.book.recommendation;
+
+import com.osama.book.history.BookTransactionRepository;
+import com.osama.book.history.BorrowPair;
+import com.osama.book.outbox.DomainEvent;
+import com.osama.book.outbox.DomainEventSubscriber;
+import com.osama.book.outbox.DomainEventType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RelatedBooksIndex implements DomainEventSubscriber {
+
+    static final int MAX_RELATED = 50;
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    private static final int USERS_PER_TASK = 256;
+
+    private final BookTransactionRepository transactionRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Integer, IntCountMap> borrowedBooks = new HashMap<>();
+    private Map<Integer, Neighbours> neighbours = new HashMap<>();
+    private List<BorrowPair> pendingBorrows;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        this.lock.writeLock().lock();
+        try {
+            this.pendingBorrows = new ArrayList<>();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        final Map<Integer, IntCountMap> rebuiltBorrowedBooks = new HashMap<>();
+        final int lastArchivedId = load(this.transactionRepository::findArchivedBorrowPairsAfter, rebuiltBorrowedBooks);
+        final int lastId = Math.max(lastArchivedId, load(this.transactionRepository::findBorrowPairsAfter, rebuiltBorrowedBooks));
+
+        final int[][] baskets = rebuiltBorrowedBooks.values().stream()
+                .map(IntCountMap::keys)
+                .toArray(int[][]::new);
+        final Map<Integer, IntCountMap> counts = ForkJoinPool.commonPool()
+                .invoke(new CoOccurrenceTask(baskets, 0, baskets.length));
+        final Map<Integer, Neighbours> rebuiltNeighbours = counts.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> new Neighbours(MAX_RELATED, entry.getValue())));
+
+        this.lock.writeLock().lock();
+        try {
+            this.borrowedBooks = rebuiltBorrowedBooks;
+            this.neighbours = rebuiltNeighbours;
+            final int highWatermark = lastId;
+            this.pendingBorrows.stream()
+                    .filter(pair -> pair.id() > highWatermark)
+                    .forEach(this::apply);
+            this.pendingBorrows = null;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        log.info("Related books index built from {} readers and {} books", baskets.length, rebuiltNeighbours.size());
+    }
+
+    private int load(final BiFunction<Integer, Limit, List<BorrowPair>> page, final Map<Integer, IntCountMap> borrowedBooks) {
+        int lastId = 0;
+        List<BorrowPair> batch;
+        do {
+            batch = page.apply(lastId, Limit.of(REBUILD_BATCH_SIZE));
+            for (BorrowPair pair : batch) {
+                borrowedBooks.computeIfAbsent(pair.userId(), userId -> new IntCountMap())
+                        .increment(pair.bookId(), 1);
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        return lastId;
+    }
+
+    @Override
+    public void onEvent(final DomainEvent event) {
+        if (event.type() == DomainEventType.BOOK_BORROWED) {
+            recordBorrow(event.referenceId(), event.userId(), event.bookId());
+        }
+    }
+
+    public void recordBorrow(final Integer historyId, final Integer userId, final Integer bookId) {
+        final BorrowPair pair = new BorrowPair(historyId, userId, bookId);
+        this.lock.writeLock().lock();
+        try {
+            if (this.pendingBorrows != null) {
+                this.pendingBorrows.add(pair);
+            }
+            apply(pair);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public int[] findRelated(final Integer bookId) {
+        this.lock.readLock().lock();
+        try {
+            final Neighbours related = this.neighbours.get(bookId);
+            return related == null ? new int[0] : related.top().clone();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void apply(final BorrowPair pair) {
+        final IntCountMap books = this.borrowedBooks.computeIfAbsent(pair.userId(), userId -> new IntCountMap());
+        if (books.increment(pair.bookId(), 1) > 1) {
+            return;
+        }
+        final Neighbours borrowed = this.neighbours.computeIfAbsent(pair.bookId(), id -> new Neighbours(MAX_RELATED));
+        books.forEach((otherBookId, count) -> {
+            if (otherBookId == pair.bookId()) {
+                return;
+            }
+            borrowed.increment(otherBookId);
+            this.neighbours.computeIfAbsent(otherBookId, id -> new Neighbours(MAX_RELATED)).increment(pair.bookId());
+        });
+    }
+
+    private static final class CoOccurrenceTask extends RecursiveTask<Map<Integer, IntCountMap>> {
+
+        private final int[][] baskets;
+        private final int from;
+        private final int to;
+
+        private CoOccurrenceTask(final int[][] baskets, final int from, final int to) {
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Integer, IntCountMap> compute() {
+            if (this.to - this.from <= USERS_PER_TASK) {
+                return count();
+            }
+            final int middle = (this.from + this.to) >>> 1;
+            final CoOccurrenceTask left = new CoOccurrenceTask(this.baskets, this.from, middle);
+            left.fork();
+            final Map<Integer, IntCountMap> right = new CoOccurrenceTask(this.baskets, middle, this.to).compute();
+            return merge(left.join(), right);
+        }
+
+        private Map<Integer, IntCountMap> count() {
+            final Map<Integer, IntCountMap> counts = new HashMap<>();
+            for (int i = this.from; i < this.to; i++) {
+                final int[] books = this.baskets[i];
+                if (books.length < 2) {
+                    continue;
+                }
+                for (int bookId : books) {
+                    final IntCountMap related = counts.computeIfAbsent(bookId, id -> new IntCountMap(books.length));
+                    for (int otherBookId : books) {
+                        if (otherBookId != bookId) {
+                            related.increment(otherBookId, 1);
+                        }
+                    }
+                }
+            }
+            return counts;
+        }
+
+        private Map<Integer, IntCountMap> merge(final Map<Integer, IntCountMap> left, final Map<Integer, IntCountMap> right) {
+            final Map<Integer, IntCountMap> target = left.size() >= right.size() ? left : right;
+            final Map<Integer, IntCountMap> source = target == left ? right : left;
+            source.forEach((bookId, related) -> {
+                final IntCountMap existing = target.putIfAbsent(bookId, related);
+                if (existing != null) {
+                    existing.addAll(related);
+                }
+            });
+            return target;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.osama.book.reservation;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "reservation", indexes = {
+        @Index(name = "idx_reservation_book", columnList = "book_id, status, id"),
+        @Index(name = "idx_reservation_status", columnList = "status, held_until")
+})
+public class Reservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    private Integer bookId;
+    private Integer userId;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ReservationStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime heldUntil;
+    private LocalDateTime closedAt;
+}
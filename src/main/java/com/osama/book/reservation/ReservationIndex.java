@@ -0,0 +1,59 @@
+package com.osama.book.reservation;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Waiting reservation ids per book, loaded from the database on first use. Bounded so that
+ * checking every borrowed book does not pin a queue for it forever; an evicted queue is
+ * reloaded from the committed reservations the next time it is needed.
+ */
+@Component
+class ReservationIndex {
+
+    private final ReservationRepository reservationRepository;
+    private final LoadingCache<Integer, NavigableSet<Integer>> waiting;
+
+    ReservationIndex(
+            final ReservationRepository reservationRepository,
+            @Value("${application.reservation.index.maximum-books}") final long maximumBooks) {
+        this.reservationRepository = reservationRepository;
+        this.waiting = Caffeine.newBuilder()
+                .maximumSize(maximumBooks)
+                .build(this::load);
+    }
+
+    boolean hasWaiting(final Integer bookId) {
+        return !queue(bookId).isEmpty();
+    }
+
+    Integer first(final Integer bookId) {
+        final NavigableSet<Integer> queue = queue(bookId);
+        return queue.isEmpty() ? null : queue.first();
+    }
+
+    int position(final Integer bookId, final Integer reservationId) {
+        return queue(bookId).headSet(reservationId).size() + 1;
+    }
+
+    void add(final Integer bookId, final Integer reservationId) {
+        queue(bookId).add(reservationId);
+    }
+
+    void remove(final Integer bookId, final Integer reservationId) {
+        queue(bookId).remove(reservationId);
+    }
+
+    private NavigableSet<Integer> queue(final Integer bookId) {
+        return this.waiting.get(bookId);
+    }
+
+    private NavigableSet<Integer> load(final Integer bookId) {
+        return new ConcurrentSkipListSet<>(this.reservationRepository.findWaitingIds(bookId));
+    }
+}
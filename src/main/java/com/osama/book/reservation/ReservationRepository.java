@@ -0,0 +1,47 @@
+package com.osama.book.reservation;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ReservationRepository extends JpaRepository<Reservation, Integer> {
+
+    @Query("""
+            SELECT COUNT(reservation) > 0
+            FROM Reservation reservation
+            WHERE reservation.bookId = :bookId
+            AND reservation.userId = :userId
+            AND reservation.status IN (com.osama.book.reservation.ReservationStatus.WAITING, com.osama.book.reservation.ReservationStatus.HELD)
+            """)
+    boolean isAlreadyReserved(@Param("bookId") Integer bookId, @Param("userId") Integer userId);
+
+    @Query("""
+            SELECT reservation
+            FROM Reservation reservation
+            WHERE reservation.bookId = :bookId
+            AND reservation.status = com.osama.book.reservation.ReservationStatus.HELD
+            """)
+    Optional<Reservation> findHold(@Param("bookId") Integer bookId);
+
+    @Query("""
+            SELECT reservation
+            FROM Reservation reservation
+            WHERE reservation.status = com.osama.book.reservation.ReservationStatus.HELD
+            AND reservation.heldUntil < :now
+            """)
+    List<Reservation> findExpiredHolds(@Param("now") LocalDateTime now, Limit limit);
+
+    @Query("""
+            SELECT reservation.id
+            FROM Reservation reservation
+            WHERE reservation.bookId = :bookId
+            AND reservation.status = com.osama.book.reservation.ReservationStatus.WAITING
+            ORDER BY reservation.id
+            """)
+    List<Integer> findWaitingIds(@Param("bookId") Integer bookId);
+}
@@ -0,0 +1,20 @@
+package com.osama.book.reservation;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ReservationResponse {
+
+    private Integer id;
+    private Integer bookId;
+    private ReservationStatus status;
+    private int position;
+    private LocalDateTime createdAt;
+    private LocalDateTime heldUntil;
+}
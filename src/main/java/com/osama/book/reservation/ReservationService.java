@@ -0,0 +1,205 @@
+package com.osama.book.reservation;
+
+import com.osama.book.book.Book;
+import com.osama.book.book.BookLockManager;
+import com.osama.book.book.BookRepository;
+import com.osama.book.exception.OperationNotPermittedException;
+import com.osama.book.history.BookTransactionRepository;
+import com.osama.book.outbox.DomainEvent;
+import com.osama.book.outbox.DomainEventSubscriber;
+import com.osama.book.outbox.DomainEventType;
+import com.osama.book.user.User;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class ReservationService implements DomainEventSubscriber {
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationIndex reservationIndex;
+    private final BookRepository bookRepository;
+    private final BookTransactionRepository transactionRepository;
+    private final BookLockManager bookLockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration holdDuration;
+    private final int expiryBatchSize;
+
+    public ReservationService(
+            final ReservationRepository reservationRepository,
+            final ReservationIndex reservationIndex,
+            final BookRepository bookRepository,
+            final BookTransactionRepository transactionRepository,
+            final BookLockManager bookLockManager,
+            final PlatformTransactionManager transactionManager,
+            @Value("${application.reservation.hold-duration}") final Duration holdDuration,
+            @Value("${application.reservation.expiry-batch-size}") final int expiryBatchSize) {
+        this.reservationRepository = reservationRepository;
+        this.reservationIndex = reservationIndex;
+        this.bookRepository = bookRepository;
+        this.transactionRepository = transactionRepository;
+        this.bookLockManager = bookLockManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.holdDuration = holdDuration;
+        this.expiryBatchSize = expiryBatchSize;
+    }
+
+    public ReservationResponse reserve(final Integer bookId, final Authentication connectedUser) {
+        final User user = (User) connectedUser.getPrincipal();
+        return this.bookLockManager.withLock(bookId, () ->
+                this.transactionTemplate.execute(status -> reserve(bookId, user)));
+    }
+
+    private ReservationResponse reserve(final Integer bookId, final User user) {
+        final Book book = this.bookRepository.findById(bookId)
+                .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + bookId));
+
+        if (book.isArchived() || !book.isShareable()) {
+            throw new OperationNotPermittedException("You can't reserve this book since it's archived or not shareable");
+        }
+
+        if (Objects.equals(book.getOwner().getId(), user.getId())) {
+            throw new OperationNotPermittedException("You can't reserve your own book");
+        }
+
+        if (this.transactionRepository.findByBookIdAndUserId(bookId, user.getId()).isPresent()) {
+            throw new OperationNotPermittedException("You already borrowed this book");
+        }
+
+        if (this.reservationRepository.isAlreadyReserved(bookId, user.getId())) {
+            throw new OperationNotPermittedException("You already reserved this book");
+        }
+
+        if (!this.transactionRepository.isAlreadyBorrowed(bookId)
+                && findActiveHold(bookId).isEmpty()
+                && !this.reservationIndex.hasWaiting(bookId)) {
+            throw new OperationNotPermittedException("The requested book is available, borrow it directly");
+        }
+
+        final Reservation reservation = this.reservationRepository.save(Reservation.builder()
+                .bookId(bookId)
+                .userId(user.getId())
+                .status(ReservationStatus.WAITING)
+                .createdAt(LocalDateTime.now())
+                .build());
+        afterCommit(() -> this.reservationIndex.add(bookId, reservation.getId()));
+        return ReservationResponse.builder()
+                .id(reservation.getId())
+                .bookId(bookId)
+                .status(reservation.getStatus())
+                .position(this.reservationIndex.position(bookId, reservation.getId()))
+                .createdAt(reservation.getCreatedAt())
+                .build();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void claimHold(final Integer bookId, final Integer userId) {
+        tryClaimHold(bookId, userId).ifPresent(error -> {
+            throw new OperationNotPermittedException(error);
+        });
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<String> tryClaimHold(final Integer bookId, final Integer userId) {
+        final Reservation next = findActiveHold(bookId).orElseGet(() -> findNextWaiting(bookId));
+        if (next == null) {
+            return Optional.empty();
+        }
+        if (!Objects.equals(next.getUserId(), userId)) {
+            return Optional.of("The requested book is reserved for another reader, please join the waitlist");
+        }
+        if (next.getStatus() == ReservationStatus.WAITING) {
+            afterCommit(() -> this.reservationIndex.remove(bookId, next.getId()));
+        }
+        next.setStatus(ReservationStatus.FULFILLED);
+        next.setClosedAt(LocalDateTime.now());
+        return Optional.empty();
+    }
+
+    @Override
+    public void onEvent(final DomainEvent event) {
+        if (event.type() == DomainEventType.RETURN_APPROVED) {
+            this.bookLockManager.withLock(event.bookId(), () ->
+                    this.transactionTemplate.execute(status -> grantNextHold(event.bookId())));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.reservation.expiry-interval}")
+    public void expireHolds() {
+        for (Reservation hold : this.reservationRepository.findExpiredHolds(LocalDateTime.now(), Limit.of(this.expiryBatchSize))) {
+            this.bookLockManager.withLock(hold.getBookId(), () ->
+                    this.transactionTemplate.execute(status -> grantNextHold(hold.getBookId())));
+        }
+    }
+
+    private Integer grantNextHold(final Integer bookId) {
+        if (findActiveHold(bookId).isPresent() || this.transactionRepository.isAlreadyBorrowed(bookId)) {
+            return null;
+        }
+        final Reservation next = findNextWaiting(bookId);
+        if (next == null) {
+            return null;
+        }
+        next.setStatus(ReservationStatus.HELD);
+        next.setHeldUntil(LocalDateTime.now().plus(this.holdDuration));
+        afterCommit(() -> this.reservationIndex.remove(bookId, next.getId()));
+        log.info("Book {} is held for reservation {} until {}", bookId, next.getId(), next.getHeldUntil());
+        return next.getId();
+    }
+
+    private Optional<Reservation> findActiveHold(final Integer bookId) {
+        final Optional<Reservation> hold = this.reservationRepository.findHold(bookId);
+        if (hold.isEmpty() || hold.get().getHeldUntil().isAfter(LocalDateTime.now())) {
+            return hold;
+        }
+        hold.get().setStatus(ReservationStatus.EXPIRED);
+        hold.get().setClosedAt(LocalDateTime.now());
+        log.info("Hold of reservation {} on book {} expired", hold.get().getId(), bookId);
+        return Optional.empty();
+    }
+
+    private Reservation findNextWaiting(final Integer bookId) {
+        for (Integer reservationId = this.reservationIndex.first(bookId);
+             reservationId != null;
+             reservationId = this.reservationIndex.first(bookId)) {
+            final Optional<Reservation> reservation = this.reservationRepository.findById(reservationId)
+                    .filter(candidate -> candidate.getStatus() == ReservationStatus.WAITING);
+            if (reservation.isPresent()) {
+                return reservation.get();
+            }
+            this.reservationIndex.remove(bookId, reservationId);
+        }
+        return null;
+    }
+
+    private void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
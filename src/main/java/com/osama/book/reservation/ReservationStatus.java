@@ -0,0 +1,8 @@
+package com.osama.book.reservation;
+
+public enum ReservationStatus {
+    WAITING,
+    HELD,
+    FULFILLED,
+    EXPIRED
+}
@@ -17,7 +17,7 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "role")
+@Table(name = "role", indexes = @Index(name = "idx_role_name", columnList = "name"))
 @EntityListeners(AuditingEntityListener.class)
 public class Role {
     @Id
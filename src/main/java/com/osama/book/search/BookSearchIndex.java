@@ -0,0 +1,446 @@
+package com.osama.book.search;
+
+import com.osama.book.book.Book;
+import com.osama.book.book.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookSearchIndex {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern ISBN = Pattern.compile("\\d{9}[\\dx]|\\d{13}");
+    private static final int NO_OWNER = 0;
+    private static final byte VISIBLE = 1;
+    private static final byte DELETED = 2;
+    private static final int MIN_DELETED_DOCS_TO_RENUMBER = 1024;
+
+    private final BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, IndexedBook> books = new HashMap<>();
+    private int[] docBookIds = new int[1024];
+    private int[] docOwnerIds = new int[1024];
+    private int[] docLengths = new int[1024];
+    private byte[] docFlags = new byte[1024];
+    private int docCount;
+    private int deletedDocs;
+    private long totalLength;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Search index built with {} books", indexBooksAfter(0));
+    }
+
+    public int indexBooksAfter(final int fromId) {
+        int lastId = fromId;
+        int indexed = 0;
+        List<SearchableBook> batch;
+        do {
+            batch = this.bookRepository.findSearchableBooksAfter(lastId, Limit.of(REBUILD_BATCH_SIZE));
+            batch.forEach(this::index);
+            indexed += batch.size();
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        return indexed;
+    }
+
+    public void index(final Book book) {
+        index(new SearchableBook(
+                book.getId(),
+                book.getOwner().getId(),
+                book.getTitle(),
+                book.getAuthorName(),
+                book.getIsbn(),
+                book.getSynopsis(),
+                book.isArchived(),
+                book.isShareable()));
+    }
+
+    public void index(final SearchableBook book) {
+        final Map<String, Integer> termFrequencies = termFrequencies(book);
+        final int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+        this.lock.writeLock().lock();
+        try {
+            removeBook(book.id());
+            final int docId = addDocument(book, length);
+            this.books.put(book.id(), new IndexedBook(docId, length, termFrequencies.keySet().toArray(String[]::new)));
+            this.totalLength += length;
+            termFrequencies.forEach((term, frequency) -> {
+                final Postings termPostings = postingsFor(term);
+                termPostings.add(docId, frequency, length);
+                termPostings.indexRanges(this.docLengths);
+            });
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(final Integer bookId) {
+        this.lock.writeLock().lock();
+        try {
+            removeBook(bookId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public List<Integer> search(final String query, final Integer userId, final int limit) {
+        final Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        this.lock.readLock().lock();
+        try {
+            if (this.books.isEmpty()) {
+                return List.of();
+            }
+            return new Query(terms, userId == null ? NO_OWNER : userId, limit).run();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private int addDocument(final SearchableBook book, final int length) {
+        if (this.docCount == this.docBookIds.length) {
+            final int capacity = this.docCount * 2;
+            this.docBookIds = Arrays.copyOf(this.docBookIds, capacity);
+            this.docOwnerIds = Arrays.copyOf(this.docOwnerIds, capacity);
+            this.docLengths = Arrays.copyOf(this.docLengths, capacity);
+            this.docFlags = Arrays.copyOf(this.docFlags, capacity);
+        }
+        final int docId = this.docCount++;
+        this.docBookIds[docId] = book.id();
+        this.docOwnerIds[docId] = book.ownerId() == null ? NO_OWNER : book.ownerId();
+        this.docLengths[docId] = length;
+        this.docFlags[docId] = !book.archived() && book.shareable() ? VISIBLE : 0;
+        return docId;
+    }
+
+    private void removeBook(final Integer bookId) {
+        final IndexedBook previous = this.books.remove(bookId);
+        if (previous == null) {
+            return;
+        }
+        this.docFlags[previous.docId()] = DELETED;
+        this.deletedDocs++;
+        for (String term : previous.terms()) {
+            final Postings termPostings = this.postings.get(term);
+            termPostings.markDeleted();
+            if (termPostings.liveSize() == 0) {
+                this.postings.remove(term);
+            } else if (termPostings.needsCompaction(averageLength())) {
+                compact(term, termPostings);
+            }
+        }
+        this.totalLength -= previous.length();
+        if (this.deletedDocs > Math.max(MIN_DELETED_DOCS_TO_RENUMBER, this.books.size())) {
+            renumber();
+        }
+    }
+
+    private Postings postingsFor(final String term) {
+        final Postings termPostings = this.postings.get(term);
+        if (termPostings == null) {
+            final Postings created = new Postings(averageLength());
+            this.postings.put(term, created);
+            return created;
+        }
+        return termPostings.needsCompaction(averageLength()) ? compact(term, termPostings) : termPostings;
+    }
+
+    private Postings compact(final String term, final Postings termPostings) {
+        final Postings compacted = termPostings.compact(
+                docId -> this.docFlags[docId] == DELETED ? -1 : docId, this.docLengths, averageLength());
+        this.postings.put(term, compacted);
+        return compacted;
+    }
+
+    private void renumber() {
+        final int[] newDocIds = new int[this.docCount];
+        int live = 0;
+        for (int docId = 0; docId < this.docCount; docId++) {
+            if (this.docFlags[docId] == DELETED) {
+                newDocIds[docId] = -1;
+                continue;
+            }
+            newDocIds[docId] = live;
+            this.docBookIds[live] = this.docBookIds[docId];
+            this.docOwnerIds[live] = this.docOwnerIds[docId];
+            this.docLengths[live] = this.docLengths[docId];
+            this.docFlags[live] = this.docFlags[docId];
+            live++;
+        }
+        this.docCount = live;
+        this.deletedDocs = 0;
+        this.postings.replaceAll((term, termPostings) ->
+                termPostings.compact(docId -> newDocIds[docId], this.docLengths, averageLength()));
+        this.books.replaceAll((bookId, book) -> new IndexedBook(newDocIds[book.docId()], book.length(), book.terms()));
+    }
+
+    private double averageLength() {
+        return this.books.isEmpty() ? 1 : (double) this.totalLength / this.books.size();
+    }
+
+    private double score(final double idf, final int frequency, final int length, final double averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private Map<String, Integer> termFrequencies(final SearchableBook book) {
+        final Map<String, Integer> termFrequencies = new HashMap<>();
+        tokenize(book.title()).forEach(term -> termFrequencies.merge(term, TITLE_WEIGHT, Integer::sum));
+        tokenize(book.authorName()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+        tokenize(book.isbn()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+        tokenize(book.synopsis()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+        return termFrequencies;
+    }
+
+    private List<String> tokenize(final String text) {
+        if (StringUtils.isBlank(text)) {
+            return List.of();
+        }
+        final List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        final String isbn = text.replaceAll("[-\\s]", "").toLowerCase(Locale.ROOT);
+        if (tokens.size() > 1 && ISBN.matcher(isbn).matches()) {
+            tokens.add(isbn);
+        }
+        return tokens;
+    }
+
+    private record IndexedBook(int docId, int length, String[] terms) {}
+
+    /**
+     * Top-k BM25 over the doc-id ordered postings (MaxScore): lists whose summed upper bounds cannot reach the
+     * current k-th score only get probed for candidates found in the others, and doc id ranges whose
+     * {@link Postings#rangeMaxImpact(int) range bounds} stay under it are skipped without scoring.
+     */
+    private final class Query {
+
+        private final int ownerId;
+        private final int limit;
+        private final double averageLength;
+        private final Postings[] lists;
+        private final double[] idfs;
+        private final double[] impactScales;
+        private final double[] upperBounds;
+        private final double[] upperBoundSums;
+        private final int[] cursors;
+        private final double[] heapScores;
+        private final int[] heapDocIds;
+        private int heapSize;
+        private double threshold;
+
+        private Query(final Set<String> terms, final int ownerId, final int limit) {
+            final int bookCount = BookSearchIndex.this.books.size();
+            this.ownerId = ownerId;
+            this.limit = Math.min(limit, bookCount);
+            this.averageLength = averageLength();
+            final List<Postings> matched = new ArrayList<>();
+            for (String term : terms) {
+                final Postings termPostings = BookSearchIndex.this.postings.get(term);
+                if (termPostings != null) {
+                    matched.add(termPostings);
+                }
+            }
+            final int size = matched.size();
+            final double[] idf = new double[size];
+            final double[] scale = new double[size];
+            final double[] bound = new double[size];
+            final Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                final int documentFrequency = matched.get(i).liveSize();
+                idf[i] = Math.log(1 + (bookCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                scale[i] = idf[i] * matched.get(i).impactScale(this.averageLength);
+                bound[i] = scale[i] * matched.get(i).maxImpact();
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingDouble(i -> bound[i]));
+            this.lists = new Postings[size];
+            this.idfs = new double[size];
+            this.impactScales = new double[size];
+            this.upperBounds = new double[size];
+            this.upperBoundSums = new double[size + 1];
+            for (int i = 0; i < size; i++) {
+                this.lists[i] = matched.get(order[i]);
+                this.idfs[i] = idf[order[i]];
+                this.impactScales[i] = scale[order[i]];
+                this.upperBounds[i] = bound[order[i]];
+                this.upperBoundSums[i + 1] = this.upperBoundSums[i] + this.upperBounds[i];
+            }
+            this.cursors = new int[size];
+            this.heapScores = new double[this.limit];
+            this.heapDocIds = new int[this.limit];
+        }
+
+        private List<Integer> run() {
+            final int size = this.lists.length;
+            int essential = 0;
+            while (true) {
+                while (essential < size && this.upperBoundSums[essential + 1] <= this.threshold) {
+                    essential++;
+                }
+                if (essential == size) {
+                    break;
+                }
+                final int docId = nextCandidate(essential);
+                if (docId == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                double bound = 0;
+                for (int i = 0; i < size; i++) {
+                    bound += this.impactScales[i] * this.lists[i].rangeMaxImpact(docId);
+                }
+                if (bound <= this.threshold) {
+                    advanceEssential(essential, ((docId >> Postings.RANGE_SHIFT) + 1) << Postings.RANGE_SHIFT);
+                    continue;
+                }
+
+                if (isCandidate(docId)) {
+                    collect(docId, essential);
+                }
+                advanceEssential(essential, docId + 1);
+            }
+            return ranked();
+        }
+
+        private int nextCandidate(final int essential) {
+            int docId = Integer.MAX_VALUE;
+            for (int i = essential; i < this.lists.length; i++) {
+                if (this.cursors[i] < this.lists[i].size()) {
+                    docId = Math.min(docId, this.lists[i].docId(this.cursors[i]));
+                }
+            }
+            return docId;
+        }
+
+        private boolean isCandidate(final int docId) {
+            return BookSearchIndex.this.docFlags[docId] == VISIBLE
+                    && BookSearchIndex.this.docOwnerIds[docId] != this.ownerId;
+        }
+
+        private void collect(final int docId, final int essential) {
+            final int length = BookSearchIndex.this.docLengths[docId];
+            double score = 0;
+            for (int i = essential; i < this.lists.length; i++) {
+                final int cursor = this.cursors[i];
+                if (cursor < this.lists[i].size() && this.lists[i].docId(cursor) == docId) {
+                    score += score(this.idfs[i], this.lists[i].frequency(cursor), length, this.averageLength);
+                }
+            }
+            for (int i = essential - 1; i >= 0; i--) {
+                if (score + this.upperBoundSums[i + 1] <= this.threshold) {
+                    return;
+                }
+                this.cursors[i] = this.lists[i].advance(this.cursors[i], docId);
+                final int cursor = this.cursors[i];
+                if (cursor < this.lists[i].size() && this.lists[i].docId(cursor) == docId) {
+                    score += score(this.idfs[i], this.lists[i].frequency(cursor), length, this.averageLength);
+                }
+            }
+            if (this.heapSize < this.limit) {
+                this.heapScores[this.heapSize] = score;
+                this.heapDocIds[this.heapSize] = docId;
+                siftUp(this.heapSize++);
+            } else if (score > this.heapScores[0]) {
+                this.heapScores[0] = score;
+                this.heapDocIds[0] = docId;
+                siftDown(0);
+            } else {
+                return;
+            }
+            if (this.heapSize == this.limit) {
+                this.threshold = this.heapScores[0];
+            }
+        }
+
+        private void advanceEssential(final int essential, final int target) {
+            for (int i = essential; i < this.lists.length; i++) {
+                this.cursors[i] = this.lists[i].advance(this.cursors[i], target);
+            }
+        }
+
+        private List<Integer> ranked() {
+            final Integer[] order = new Integer[this.heapSize];
+            for (int i = 0; i < this.heapSize; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingDouble((Integer i) -> this.heapScores[i]).reversed());
+            final List<Integer> bookIds = new ArrayList<>(this.heapSize);
+            for (Integer i : order) {
+                bookIds.add(BookSearchIndex.this.docBookIds[this.heapDocIds[i]]);
+            }
+            return bookIds;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                final int parent = (index - 1) >>> 1;
+                if (this.heapScores[parent] <= this.heapScores[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                final int left = 2 * index + 1;
+                if (left >= this.heapSize) {
+                    return;
+                }
+                final int right = left + 1;
+                final int smallest = right < this.heapSize && this.heapScores[right] < this.heapScores[left] ? right : left;
+                if (this.heapScores[index] <= this.heapScores[smallest]) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(final int first, final int second) {
+            final double score = this.heapScores[first];
+            this.heapScores[first] = this.heapScores[second];
+            this.heapScores[second] = score;
+            final int docId = this.heapDocIds[first];
+            this.heapDocIds[first] = this.heapDocIds[second];
+            this.heapDocIds[second] = docId;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.osama.book.search;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+class Postings {
+
+    static final int RANGE_SHIFT = 5;
+    private static final double MAX_REFERENCE_DRIFT = 1.05;
+
+    private final double referenceLength;
+    private int[] docIds = new int[4];
+    private int[] frequencies = new int[4];
+    private float[] rangeMaxImpacts;
+    private int size;
+    private int deleted;
+    private float maxImpact;
+
+    Postings(final double referenceLength) {
+        this.referenceLength = Math.max(1, referenceLength);
+    }
+
+    void add(final int docId, final int frequency, final int length) {
+        if (size == docIds.length) {
+            docIds = Arrays.copyOf(docIds, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+        final float impact = impact(frequency, length);
+        docIds[size] = docId;
+        frequencies[size] = frequency;
+        maxImpact = Math.max(maxImpact, impact);
+        size++;
+        if (rangeMaxImpacts != null) {
+            recordRangeImpact(docId, impact);
+        }
+    }
+
+    /**
+     * Dense lists also keep the highest impact of every {@code 1 << RANGE_SHIFT} doc ids, so a query can skip
+     * a whole doc id range across all of its lists at once; sparse lists would pay more for the ranges than
+     * for their postings and only answer with {@link #maxImpact()}, dropping the ranges once they get that sparse.
+     */
+    void indexRanges(final int[] lengths) {
+        if (rangeMaxImpacts != null || size == 0 || size < docIds[size - 1] >> RANGE_SHIFT) {
+            return;
+        }
+        rangeMaxImpacts = new float[(docIds[size - 1] >> RANGE_SHIFT) + 1];
+        for (int i = 0; i < size; i++) {
+            recordRangeImpact(docIds[i], impact(frequencies[i], lengths[docIds[i]]));
+        }
+    }
+
+    private void recordRangeImpact(final int docId, final float impact) {
+        final int range = docId >> RANGE_SHIFT;
+        if (range >= rangeMaxImpacts.length && size * 2 < range) {
+            rangeMaxImpacts = null;
+            return;
+        }
+        if (range >= rangeMaxImpacts.length) {
+            rangeMaxImpacts = Arrays.copyOf(rangeMaxImpacts, Math.max(range + 1, rangeMaxImpacts.length * 2));
+        }
+        rangeMaxImpacts[range] = Math.max(rangeMaxImpacts[range], impact);
+    }
+
+    private float impact(final int frequency, final int length) {
+        return Math.nextUp((float) (frequency
+                / (frequency + BookSearchIndex.K1 * (1 - BookSearchIndex.B + BookSearchIndex.B * length / referenceLength))));
+    }
+
+    void markDeleted() {
+        deleted++;
+    }
+
+    boolean needsCompaction(final double averageLength) {
+        return deleted * 2 > size
+                || averageLength > referenceLength * MAX_REFERENCE_DRIFT
+                || averageLength * MAX_REFERENCE_DRIFT < referenceLength;
+    }
+
+    Postings compact(final IntUnaryOperator remap, final int[] lengths, final double referenceLength) {
+        final Postings compacted = new Postings(referenceLength);
+        compacted.docIds = new int[Math.max(4, size - deleted)];
+        compacted.frequencies = new int[compacted.docIds.length];
+        for (int i = 0; i < size; i++) {
+            final int docId = remap.applyAsInt(docIds[i]);
+            if (docId >= 0) {
+                compacted.add(docId, frequencies[i], lengths[docId]);
+            }
+        }
+        compacted.indexRanges(lengths);
+        return compacted;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int liveSize() {
+        return size - deleted;
+    }
+
+    int docId(final int index) {
+        return docIds[index];
+    }
+
+    int frequency(final int index) {
+        return frequencies[index];
+    }
+
+    /**
+     * Scale that turns the impacts recorded against {@code referenceLength} into an upper bound for
+     * {@code averageLength}: the BM25 term factor only grows with the average length, and at most linearly.
+     */
+    double impactScale(final double averageLength) {
+        return (BookSearchIndex.K1 + 1) * Math.max(1, averageLength / referenceLength);
+    }
+
+    float maxImpact() {
+        return maxImpact;
+    }
+
+    float rangeMaxImpact(final int docId) {
+        if (rangeMaxImpacts == null) {
+            return maxImpact;
+        }
+        final int range = docId >> RANGE_SHIFT;
+        return range < rangeMaxImpacts.length ? rangeMaxImpacts[range] : 0;
+    }
+
+    int advance(final int from, final int target) {
+        if (from >= size || docIds[from] >= target) {
+            return from;
+        }
+        int low = from + 1;
+        int step = 1;
+        int high = from + step;
+        while (high < size && docIds[high] < target) {
+            low = high + 1;
+            step <<= 1;
+            high = from + step;
+        }
+        high = Math.min(high, size);
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (docIds[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
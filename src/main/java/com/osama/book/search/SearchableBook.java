@@ -0,0 +1,12 @@
+package com.osama.book.search;
+
+public record SearchableBook(
+        Integer id,
+        Integer ownerId,
+        String title,
+        String authorName,
+        String isbn,
+        String synopsis,
+        boolean archived,
+        boolean shareable
+) {}
@@ -0,0 +1,6 @@
+package com.osama.book.stats;
+
+public record BookBorrowCount(
+        Integer bookId,
+        long borrows
+) {}
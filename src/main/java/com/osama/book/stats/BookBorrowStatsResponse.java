@@ -0,0 +1,16 @@
+package com.osama.book.stats;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookBorrowStatsResponse {
+
+    private Integer bookId;
+    private String title;
+    private String authorName;
+    private long borrows;
+}
@@ -0,0 +1,25 @@
+package com.osama.book.stats;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "daily_book_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_book_stats", columnNames = {"stat_date", "book_id"}),
+        indexes = @Index(name = "idx_daily_book_stats_owner", columnList = "owner_id, stat_date"))
+public class DailyBookStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    private LocalDate statDate;
+    private Integer bookId;
+    private Integer ownerId;
+    private long borrows;
+}
@@ -0,0 +1,54 @@
+package com.osama.book.stats;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface DailyBookStatsRepository extends JpaRepository<DailyBookStats, Integer> {
+
+    @Query("""
+            SELECT stats
+            FROM DailyBookStats stats
+            WHERE stats.statDate IN :dates
+            AND stats.bookId IN :bookIds
+            """)
+    List<DailyBookStats> findAllByStatDateInAndBookIdIn(
+            @Param("dates") Collection<LocalDate> dates,
+            @Param("bookIds") Collection<Integer> bookIds);
+
+    @Query("""
+            SELECT new com.osama.book.stats.BookBorrowCount(stats.bookId, SUM(stats.borrows))
+            FROM DailyBookStats stats
+            WHERE stats.statDate BETWEEN :from AND :to
+            GROUP BY stats.bookId
+            ORDER BY SUM(stats.borrows) DESC, stats.bookId
+            """)
+    List<BookBorrowCount> findMostBorrowed(@Param("from") LocalDate from, @Param("to") LocalDate to, Limit limit);
+
+    @Query("""
+            SELECT new com.osama.book.stats.BookBorrowCount(stats.bookId, SUM(stats.borrows))
+            FROM DailyBookStats stats
+            WHERE stats.ownerId = :ownerId
+            AND stats.statDate BETWEEN :from AND :to
+            GROUP BY stats.bookId
+            ORDER BY SUM(stats.borrows) DESC, stats.bookId
+            """)
+    List<BookBorrowCount> findMostBorrowedByOwner(
+            @Param("ownerId") Integer ownerId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            Limit limit);
+
+    @Modifying
+    @Query("""
+            DELETE FROM DailyBookStats stats
+            WHERE stats.statDate = :statDate
+            """)
+    int deleteByStatDate(@Param("statDate") LocalDate statDate);
+}
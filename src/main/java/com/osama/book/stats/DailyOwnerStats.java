@@ -0,0 +1,28 @@
+package com.osama.book.stats;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "daily_owner_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_owner_stats", columnNames = {"stat_date", "owner_id"}),
+        indexes = @Index(name = "idx_daily_owner_stats_owner", columnList = "owner_id, stat_date"))
+public class DailyOwnerStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    private LocalDate statDate;
+    private Integer ownerId;
+    private long borrows;
+    private long returns;
+    private long returnLatencySeconds;
+    private long approvals;
+    private long approvalLatencySeconds;
+}
@@ -0,0 +1,55 @@
+package com.osama.book.stats;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface DailyOwnerStatsRepository extends JpaRepository<DailyOwnerStats, Integer> {
+
+    @Query("""
+            SELECT stats
+            FROM DailyOwnerStats stats
+            WHERE stats.statDate IN :dates
+            AND stats.ownerId IN :ownerIds
+            """)
+    List<DailyOwnerStats> findAllByStatDateInAndOwnerIdIn(
+            @Param("dates") Collection<LocalDate> dates,
+            @Param("ownerIds") Collection<Integer> ownerIds);
+
+    @Query("""
+            SELECT new com.osama.book.stats.DailyStats(
+                stats.statDate, SUM(stats.borrows), SUM(stats.returns), SUM(stats.returnLatencySeconds),
+                SUM(stats.approvals), SUM(stats.approvalLatencySeconds))
+            FROM DailyOwnerStats stats
+            WHERE stats.statDate BETWEEN :from AND :to
+            GROUP BY stats.statDate
+            ORDER BY stats.statDate
+            """)
+    List<DailyStats> findDailyStats(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("""
+            SELECT new com.osama.book.stats.DailyStats(
+                stats.statDate, stats.borrows, stats.returns, stats.returnLatencySeconds,
+                stats.approvals, stats.approvalLatencySeconds)
+            FROM DailyOwnerStats stats
+            WHERE stats.ownerId = :ownerId
+            AND stats.statDate BETWEEN :from AND :to
+            ORDER BY stats.statDate
+            """)
+    List<DailyStats> findDailyStatsByOwner(
+            @Param("ownerId") Integer ownerId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("""
+            DELETE FROM DailyOwnerStats stats
+            WHERE stats.statDate = :statDate
+            """)
+    int deleteByStatDate(@Param("statDate") LocalDate statDate);
+}
@@ -0,0 +1,12 @@
+package com.osama.book.stats;
+
+import java.time.LocalDate;
+
+public record DailyStats(
+        LocalDate statDate,
+        long borrows,
+        long returns,
+        long returnLatencySeconds,
+        long approvals,
+        long approvalLatencySeconds
+) {}
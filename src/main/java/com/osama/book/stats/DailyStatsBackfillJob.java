@@ -0,0 +1,19 @@
+package com.osama.book.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "application.stats.backfill-on-startup", havingValue = "true")
+public class DailyStatsBackfillJob implements CommandLineRunner {
+
+    private final DailyStatsRollup dailyStatsRollup;
+
+    @Override
+    public void run(String... args) {
+        this.dailyStatsRollup.backfill();
+    }
+}
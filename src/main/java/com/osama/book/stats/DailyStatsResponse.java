@@ -0,0 +1,20 @@
+package com.osama.book.stats;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DailyStatsResponse {
+
+    private LocalDate date;
+    private long borrows;
+    private long returns;
+    private double averageReturnSeconds;
+    private long approvals;
+    private double averageApprovalSeconds;
+}
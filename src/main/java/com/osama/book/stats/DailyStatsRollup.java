@@ -0,0 +1,257 @@
+package com.osama.book.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class DailyStatsRollup {
+
+    private static final String WATERMARK = "daily-stats";
+    private static final List<String> HOT_TABLES = List.of("transaction_history");
+    private static final List<String> ALL_TABLES = List.of("transaction_history", "transaction_history_archive");
+    private static final String BORROWS = """
+            SELECT CAST(created_date AS DATE) AS stat_date, owner_id, book_id, COUNT(*) AS borrows
+            FROM %s
+            WHERE created_date >= :from
+            AND created_date < :to
+            AND owner_id IS NOT NULL
+            GROUP BY CAST(created_date AS DATE), owner_id, book_id
+            """;
+    private static final String RETURNS = """
+            SELECT CAST(returned_date AS DATE) AS stat_date, owner_id, COUNT(*) AS events,
+                SUM(TIMESTAMPDIFF(SECOND, created_date, returned_date)) AS latency
+            FROM %s
+            WHERE returned_date >= :from
+            AND returned_date < :to
+            AND owner_id IS NOT NULL
+            GROUP BY CAST(returned_date AS DATE), owner_id
+            """;
+    private static final String APPROVALS = """
+            SELECT CAST(approved_date AS DATE) AS stat_date, owner_id, COUNT(*) AS events,
+                SUM(TIMESTAMPDIFF(SECOND, COALESCE(returned_date, created_date), approved_date)) AS latency
+            FROM %s
+            WHERE approved_date >= :from
+            AND approved_date < :to
+            AND owner_id IS NOT NULL
+            GROUP BY CAST(approved_date AS DATE), owner_id
+            """;
+    private static final String FIRST_DATE = """
+            SELECT MIN(created_date)
+            FROM %s
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StatsWatermarkRepository watermarkRepository;
+    private final DailyOwnerStatsRepository ownerStatsRepository;
+    private final DailyBookStatsRepository bookStatsRepository;
+    private final Duration settleDelay;
+    private final int backfillParallelism;
+
+    public DailyStatsRollup(
+            final NamedParameterJdbcTemplate jdbcTemplate,
+            final TransactionTemplate transactionTemplate,
+            final StatsWatermarkRepository watermarkRepository,
+            final DailyOwnerStatsRepository ownerStatsRepository,
+            final DailyBookStatsRepository bookStatsRepository,
+            @Value("${application.stats.settle-delay}") final Duration settleDelay,
+            @Value("${application.stats.backfill-parallelism}") final int backfillParallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.watermarkRepository = watermarkRepository;
+        this.ownerStatsRepository = ownerStatsRepository;
+        this.bookStatsRepository = bookStatsRepository;
+        this.settleDelay = settleDelay;
+        this.backfillParallelism = backfillParallelism;
+    }
+
+    @Scheduled(fixedDelayString = "${application.stats.rollup-interval}")
+    public void rollup() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            final StatsWatermark watermark = lockWatermark();
+            final LocalDateTime to = LocalDateTime.now().minus(this.settleDelay);
+            if (!to.isAfter(watermark.getFoldedUntil())) {
+                return;
+            }
+            merge(aggregate(watermark.getFoldedUntil(), to, HOT_TABLES));
+            watermark.setFoldedUntil(to);
+        });
+    }
+
+    public void backfill() {
+        final LocalDate until = this.transactionTemplate.execute(status -> lockWatermark().getFoldedUntil().toLocalDate());
+        final LocalDate from = findFirstDate();
+        if (from == null || !from.isBefore(until)) {
+            return;
+        }
+
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(this.backfillParallelism);
+        executor.setMaxPoolSize(this.backfillParallelism);
+        executor.setThreadNamePrefix("stats-backfill-");
+        executor.initialize();
+        try {
+            final List<Future<?>> days = new ArrayList<>();
+            for (LocalDate day = from; day.isBefore(until); day = day.plusDays(1)) {
+                final LocalDate statDate = day;
+                days.add(executor.submit(() -> rebuildDay(statDate)));
+            }
+            for (Future<?> day : days) {
+                day.get();
+            }
+            log.info("Rebuilt daily statistics from {} until {}", from, until);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Daily statistics backfill failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void rebuildDay(final LocalDate day) {
+        final Rollup rollup = aggregate(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), ALL_TABLES);
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.ownerStatsRepository.deleteByStatDate(day);
+            this.bookStatsRepository.deleteByStatDate(day);
+            merge(rollup);
+        });
+    }
+
+    private StatsWatermark lockWatermark() {
+        return this.watermarkRepository.findForUpdate(WATERMARK)
+                .orElseGet(() -> this.watermarkRepository.save(StatsWatermark.builder()
+                        .name(WATERMARK)
+                        .foldedUntil(LocalDate.now().atStartOfDay())
+                        .build()));
+    }
+
+    private LocalDate findFirstDate() {
+        return ALL_TABLES.stream()
+                .map(table -> this.jdbcTemplate.getJdbcTemplate().queryForObject(FIRST_DATE.formatted(table), Timestamp.class))
+                .filter(Objects::nonNull)
+                .map(first -> first.toLocalDateTime().toLocalDate())
+                .min(LocalDate::compareTo)
+                .orElse(null);
+    }
+
+    private Rollup aggregate(final LocalDateTime from, final LocalDateTime to, final List<String> tables) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        final Rollup rollup = new Rollup();
+        for (String table : tables) {
+            this.jdbcTemplate.query(BORROWS.formatted(table), parameters, rs -> {
+                final LocalDate statDate = rs.getObject("stat_date", LocalDate.class);
+                final int ownerId = rs.getInt("owner_id");
+                final long borrows = rs.getLong("borrows");
+                rollup.owner(statDate, ownerId).setBorrows(rollup.owner(statDate, ownerId).getBorrows() + borrows);
+                final DailyBookStats book = rollup.book(statDate, rs.getInt("book_id"), ownerId);
+                book.setBorrows(book.getBorrows() + borrows);
+            });
+            this.jdbcTemplate.query(RETURNS.formatted(table), parameters, rs -> {
+                final DailyOwnerStats owner = rollup.owner(rs.getObject("stat_date", LocalDate.class), rs.getInt("owner_id"));
+                owner.setReturns(owner.getReturns() + rs.getLong("events"));
+                owner.setReturnLatencySeconds(owner.getReturnLatencySeconds() + rs.getLong("latency"));
+            });
+            this.jdbcTemplate.query(APPROVALS.formatted(table), parameters, rs -> {
+                final DailyOwnerStats owner = rollup.owner(rs.getObject("stat_date", LocalDate.class), rs.getInt("owner_id"));
+                owner.setApprovals(owner.getApprovals() + rs.getLong("events"));
+                owner.setApprovalLatencySeconds(owner.getApprovalLatencySeconds() + rs.getLong("latency"));
+            });
+        }
+        return rollup;
+    }
+
+    private void merge(final Rollup rollup) {
+        if (!rollup.owners.isEmpty()) {
+            final Map<OwnerDay, DailyOwnerStats> existing = this.ownerStatsRepository.findAllByStatDateInAndOwnerIdIn(
+                            dates(rollup.owners.keySet(), OwnerDay::statDate),
+                            rollup.owners.keySet().stream().map(OwnerDay::ownerId).collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(stats -> new OwnerDay(stats.getStatDate(), stats.getOwnerId()), Function.identity()));
+            final List<DailyOwnerStats> merged = new ArrayList<>();
+            rollup.owners.forEach((key, delta) -> {
+                final DailyOwnerStats stats = existing.get(key);
+                if (stats == null) {
+                    merged.add(delta);
+                    return;
+                }
+                stats.setBorrows(stats.getBorrows() + delta.getBorrows());
+                stats.setReturns(stats.getReturns() + delta.getReturns());
+                stats.setReturnLatencySeconds(stats.getReturnLatencySeconds() + delta.getReturnLatencySeconds());
+                stats.setApprovals(stats.getApprovals() + delta.getApprovals());
+                stats.setApprovalLatencySeconds(stats.getApprovalLatencySeconds() + delta.getApprovalLatencySeconds());
+                merged.add(stats);
+            });
+            this.ownerStatsRepository.saveAll(merged);
+        }
+        if (!rollup.books.isEmpty()) {
+            final Map<BookDay, DailyBookStats> existing = this.bookStatsRepository.findAllByStatDateInAndBookIdIn(
+                            dates(rollup.books.keySet(), BookDay::statDate),
+                            rollup.books.keySet().stream().map(BookDay::bookId).collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(stats -> new BookDay(stats.getStatDate(), stats.getBookId()), Function.identity()));
+            final List<DailyBookStats> merged = new ArrayList<>();
+            rollup.books.forEach((key, delta) -> {
+                final DailyBookStats stats = existing.get(key);
+                if (stats == null) {
+                    merged.add(delta);
+                    return;
+                }
+                stats.setBorrows(stats.getBorrows() + delta.getBorrows());
+                merged.add(stats);
+            });
+            this.bookStatsRepository.saveAll(merged);
+        }
+    }
+
+    private <K> Collection<LocalDate> dates(final Collection<K> keys, final Function<K, LocalDate> date) {
+        return keys.stream().map(date).collect(Collectors.toSet());
+    }
+
+    private record OwnerDay(LocalDate statDate, Integer ownerId) {}
+
+    private record BookDay(LocalDate statDate, Integer bookId) {}
+
+    private static final class Rollup {
+
+        private final Map<OwnerDay, DailyOwnerStats> owners = new HashMap<>();
+        private final Map<BookDay, DailyBookStats> books = new HashMap<>();
+
+        private DailyOwnerStats owner(final LocalDate statDate, final Integer ownerId) {
+            return this.owners.computeIfAbsent(new OwnerDay(statDate, ownerId), key -> DailyOwnerStats.builder()
+                    .statDate(statDate)
+                    .ownerId(ownerId)
+                    .build());
+        }
+
+        private DailyBookStats book(final LocalDate statDate, final Integer bookId, final Integer ownerId) {
+            return this.books.computeIfAbsent(new BookDay(statDate, bookId), key -> DailyBookStats.builder()
+                    .statDate(statDate)
+                    .bookId(bookId)
+                    .ownerId(ownerId)
+                    .build());
+        }
+    }
+}
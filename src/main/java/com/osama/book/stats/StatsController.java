@@ -0,0 +1,36 @@
+package com.osama.book.stats;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("stats")
+@RequiredArgsConstructor
+@Tag(name = "Stats", description = "Borrowing statistics API")
+public class StatsController {
+
+    private final StatsService statsService;
+
+    @GetMapping
+    public ResponseEntity<StatsResponse> findStats(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "size", defaultValue = "10", required = false) int size) {
+        return ResponseEntity.ok(this.statsService.findStats(from, to, size));
+    }
+
+    @GetMapping("/owner")
+    public ResponseEntity<StatsResponse> findOwnerStats(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+            Authentication connectedUser) {
+        return ResponseEntity.ok(this.statsService.findOwnerStats(from, to, size, connectedUser));
+    }
+}
@@ -0,0 +1,19 @@
+package com.osama.book.stats;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StatsResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private List<DailyStatsResponse> days;
+    private List<BookBorrowStatsResponse> mostBorrowed;
+}
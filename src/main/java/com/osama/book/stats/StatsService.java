@@ -0,0 +1,112 @@
+package com.osama.book.stats;
+
+import com.osama.book.book.BookRepository;
+import com.osama.book.book.BookSummary;
+import com.osama.book.exception.InvalidRequestParameterException;
+import com.osama.book.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class StatsService {
+
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 366;
+    private static final int MAX_SIZE = 100;
+
+    private final DailyOwnerStatsRepository ownerStatsRepository;
+    private final DailyBookStatsRepository bookStatsRepository;
+    private final BookRepository bookRepository;
+
+    public StatsResponse findStats(final LocalDate from, final LocalDate to, final int size) {
+        requireValidSize(size);
+        final LocalDate end = to == null ? LocalDate.now() : to;
+        final LocalDate start = resolveStart(from, end);
+        return toResponse(
+                start,
+                end,
+                this.ownerStatsRepository.findDailyStats(start, end),
+                this.bookStatsRepository.findMostBorrowed(start, end, Limit.of(size)));
+    }
+
+    public StatsResponse findOwnerStats(final LocalDate from, final LocalDate to, final int size, final Authentication connectedUser) {
+        requireValidSize(size);
+        final User user = (User) connectedUser.getPrincipal();
+        final LocalDate end = to == null ? LocalDate.now() : to;
+        final LocalDate start = resolveStart(from, end);
+        return toResponse(
+                start,
+                end,
+                this.ownerStatsRepository.findDailyStatsByOwner(user.getId(), start, end),
+                this.bookStatsRepository.findMostBorrowedByOwner(user.getId(), start, end, Limit.of(size)));
+    }
+
+    private LocalDate resolveStart(final LocalDate from, final LocalDate end) {
+        final LocalDate start = from == null ? end.minusDays(DEFAULT_DAYS - 1) : from;
+        if (start.isAfter(end)) {
+            throw new InvalidRequestParameterException("The start date must not be after the end date");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+            throw new InvalidRequestParameterException("The date range must not exceed " + MAX_DAYS + " days");
+        }
+        return start;
+    }
+
+    private void requireValidSize(final int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new InvalidRequestParameterException("Size must be between 1 and " + MAX_SIZE);
+        }
+    }
+
+    private StatsResponse toResponse(
+            final LocalDate from,
+            final LocalDate to,
+            final List<DailyStats> days,
+            final List<BookBorrowCount> mostBorrowed) {
+        final Map<Integer, BookSummary> books = mostBorrowed.isEmpty()
+                ? Map.of()
+                : this.bookRepository.findSummariesByIdIn(mostBorrowed.stream().map(BookBorrowCount::bookId).toList()).stream()
+                        .collect(Collectors.toMap(BookSummary::id, Function.identity()));
+        return StatsResponse.builder()
+                .from(from)
+                .to(to)
+                .days(days.stream()
+                        .map(day -> DailyStatsResponse.builder()
+                                .date(day.statDate())
+                                .borrows(day.borrows())
+                                .returns(day.returns())
+                                .averageReturnSeconds(average(day.returnLatencySeconds(), day.returns()))
+                                .approvals(day.approvals())
+                                .averageApprovalSeconds(average(day.approvalLatencySeconds(), day.approvals()))
+                                .build())
+                        .toList())
+                .mostBorrowed(mostBorrowed.stream()
+                        .map(count -> {
+                            final BookSummary book = books.get(count.bookId());
+                            return BookBorrowStatsResponse.builder()
+                                    .bookId(count.bookId())
+                                    .title(book == null ? null : book.title())
+                                    .authorName(book == null ? null : book.authorName())
+                                    .borrows(count.borrows())
+                                    .build();
+                        })
+                        .toList())
+                .build();
+    }
+
+    private double average(final long total, final long count) {
+        return count == 0 ? 0 : (double) total / count;
+    }
+}
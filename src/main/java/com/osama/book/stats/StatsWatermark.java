@@ -0,0 +1,20 @@
+package com.osama.book.stats;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "stats_watermark")
+public class StatsWatermark {
+    @Id
+    @Column(length = 64)
+    private String name;
+    private LocalDateTime foldedUntil;
+}
@@ -0,0 +1,20 @@
+package com.osama.book.stats;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface StatsWatermarkRepository extends JpaRepository<StatsWatermark, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT watermark
+            FROM StatsWatermark watermark
+            WHERE watermark.name = :name
+            """)
+    Optional<StatsWatermark> findForUpdate(@Param("name") String name);
+}
@@ -0,0 +1,66 @@
+package com.osama.book.trending;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    SlidingWindowCounter(final TrendingWindow window) {
+        this.bucketMillis = window.getBucketLength().toMillis();
+        this.buckets = new AtomicReferenceArray<>(window.getBucketCount());
+    }
+
+    /**
+     * Counts the weight in the bucket of {@code eventMillis}; events that already fell out of the window, or whose
+     * slot was reused by a newer bucket, are dropped instead of landing in a bucket they do not belong to.
+     */
+    void add(final int bookId, final long weight, final long eventMillis, final long nowMillis) {
+        final long epoch = Math.min(eventMillis, nowMillis) / this.bucketMillis;
+        if (epoch <= nowMillis / this.bucketMillis - this.buckets.length()) {
+            return;
+        }
+        final Bucket bucket = bucket(epoch);
+        if (bucket != null) {
+            bucket.counts()
+                    .computeIfAbsent(bookId, id -> new LongAdder())
+                    .add(weight);
+        }
+    }
+
+    Map<Integer, Long> snapshot(final long nowMillis) {
+        final long oldestEpoch = nowMillis / this.bucketMillis - this.buckets.length() + 1;
+        final Map<Integer, Long> totals = new HashMap<>();
+        for (int i = 0; i < this.buckets.length(); i++) {
+            final Bucket bucket = this.buckets.get(i);
+            if (bucket != null && bucket.epoch() >= oldestEpoch) {
+                bucket.counts().forEach((bookId, count) -> totals.merge(bookId, count.sum(), Long::sum));
+            }
+        }
+        return totals;
+    }
+
+    private Bucket bucket(final long epoch) {
+        final int slot = (int) (epoch % this.buckets.length());
+        while (true) {
+            final Bucket current = this.buckets.get(slot);
+            if (current != null && current.epoch() == epoch) {
+                return current;
+            }
+            if (current != null && current.epoch() > epoch) {
+                return null;
+            }
+            final Bucket next = new Bucket(epoch, new ConcurrentHashMap<>());
+            if (this.buckets.compareAndSet(slot, current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private record Bucket(long epoch, ConcurrentHashMap<Integer, LongAdder> counts) {}
+}
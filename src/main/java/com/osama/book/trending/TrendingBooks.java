@@ -0,0 +1,164 @@
+package com.osama.book.trending;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.osama.book.feedback.FeedbackRepository;
+import com.osama.book.history.BookTransactionRepository;
+import com.osama.book.outbox.DomainEvent;
+import com.osama.book.outbox.DomainEventSubscriber;
+import com.osama.book.outbox.DomainEventType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BiFunction;
+
+@Component
+@Slf4j
+public class TrendingBooks implements DomainEventSubscriber {
+
+    private static final long BORROW_WEIGHT = 3;
+    private static final long FEEDBACK_WEIGHT = 1;
+    private static final int SEED_BATCH_SIZE = 5000;
+    private static final Duration WIDEST_WINDOW = Arrays.stream(TrendingWindow.values())
+            .map(TrendingWindow::getLength)
+            .max(Comparator.naturalOrder())
+            .orElseThrow();
+
+    private final BookTransactionRepository transactionRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final int maxRanked;
+    private final Map<TrendingWindow, SlidingWindowCounter> counters = new EnumMap<>(TrendingWindow.class);
+    private final Cache<RecordedSignal, Boolean> recordedSignals;
+    private volatile Map<TrendingWindow, List<Integer>> rankings = new EnumMap<>(TrendingWindow.class);
+
+    public TrendingBooks(
+            final BookTransactionRepository transactionRepository,
+            final FeedbackRepository feedbackRepository,
+            @Value("${application.trending.max-ranked}") final int maxRanked,
+            @Value("${application.trending.max-recorded-events}") final long maxRecordedEvents) {
+        this.transactionRepository = transactionRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.maxRanked = maxRanked;
+        this.recordedSignals = Caffeine.newBuilder()
+                .maximumSize(maxRecordedEvents)
+                .build();
+        for (TrendingWindow window : TrendingWindow.values()) {
+            this.counters.put(window, new SlidingWindowCounter(window));
+        }
+    }
+
+    @Override
+    public void onEvent(final DomainEvent event) {
+        switch (event.type()) {
+            case BOOK_BORROWED -> afterCommit(() ->
+                    record(event.type(), new TrendingSignal(event.referenceId(), event.bookId(), event.occurredAt()), BORROW_WEIGHT));
+            case FEEDBACK_ADDED -> afterCommit(() ->
+                    record(event.type(), new TrendingSignal(event.referenceId(), event.bookId(), event.occurredAt()), FEEDBACK_WEIGHT));
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Replays the borrows and feedback of the widest window so the rankings survive a restart; signals are keyed
+     * by the row they come from, so an outbox event delivered for a row that was already seeded is not counted again.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        final LocalDateTime since = LocalDateTime.now().minus(WIDEST_WINDOW);
+        final int borrows = seed(DomainEventType.BOOK_BORROWED, BORROW_WEIGHT,
+                (lastId, limit) -> this.transactionRepository.findBorrowSignalsAfter(since, lastId, limit));
+        final int feedbacks = seed(DomainEventType.FEEDBACK_ADDED, FEEDBACK_WEIGHT,
+                (lastId, limit) -> this.feedbackRepository.findFeedbackSignalsAfter(since, lastId, limit));
+        refresh();
+        log.info("Trending windows seeded with {} borrows and {} feedbacks", borrows, feedbacks);
+    }
+
+    public List<Integer> findTrending(final TrendingWindow window) {
+        return this.rankings.getOrDefault(window, List.of());
+    }
+
+    @Scheduled(fixedDelayString = "${application.trending.refresh-interval}")
+    public void refresh() {
+        final long now = System.currentTimeMillis();
+        final Map<TrendingWindow, List<Integer>> refreshed = new EnumMap<>(TrendingWindow.class);
+        this.counters.forEach((window, counter) -> refreshed.put(window, rank(counter.snapshot(now))));
+        this.rankings = refreshed;
+    }
+
+    private int seed(final DomainEventType type, final long weight, final BiFunction<Integer, Limit, List<TrendingSignal>> page) {
+        int seeded = 0;
+        int lastId = 0;
+        List<TrendingSignal> batch;
+        do {
+            batch = page.apply(lastId, Limit.of(SEED_BATCH_SIZE));
+            for (TrendingSignal signal : batch) {
+                record(type, signal, weight);
+                lastId = signal.id();
+            }
+            seeded += batch.size();
+        } while (batch.size() == SEED_BATCH_SIZE);
+        return seeded;
+    }
+
+    private void record(final DomainEventType type, final TrendingSignal signal, final long weight) {
+        final long now = System.currentTimeMillis();
+        final long occurredAt = signal.occurredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (now - occurredAt > WIDEST_WINDOW.toMillis()
+                || this.recordedSignals.asMap().putIfAbsent(new RecordedSignal(type, signal.id()), Boolean.TRUE) != null) {
+            return;
+        }
+        this.counters.values().forEach(counter -> counter.add(signal.bookId(), weight, occurredAt, now));
+    }
+
+    private List<Integer> rank(final Map<Integer, Long> scores) {
+        final Comparator<Map.Entry<Integer, Long>> ranking = Map.Entry.<Integer, Long>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        final PriorityQueue<Map.Entry<Integer, Long>> heap = new PriorityQueue<>(ranking);
+        for (Map.Entry<Integer, Long> score : scores.entrySet()) {
+            heap.offer(score);
+            if (heap.size() > this.maxRanked) {
+                heap.poll();
+            }
+        }
+        final List<Map.Entry<Integer, Long>> ranked = new ArrayList<>(heap);
+        ranked.sort(ranking.reversed());
+        return ranked.stream()
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record RecordedSignal(DomainEventType type, Integer referenceId) {}
+}
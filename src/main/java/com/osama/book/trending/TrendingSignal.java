@@ -0,0 +1,9 @@
+package com.osama.book.trending;
+
+import java.time.LocalDateTime;
+
+public record TrendingSignal(
+        Integer id,
+        Integer bookId,
+        LocalDateTime occurredAt
+) {}
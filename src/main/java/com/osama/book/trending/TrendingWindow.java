@@ -0,0 +1,32 @@
+package com.osama.book.trending;
+
+import com.osama.book.exception.InvalidRequestParameterException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+@Getter
+@RequiredArgsConstructor
+public enum TrendingWindow {
+    ONE_HOUR("1h", Duration.ofHours(1), Duration.ofMinutes(1)),
+    ONE_DAY("24h", Duration.ofDays(1), Duration.ofMinutes(15)),
+    ONE_WEEK("7d", Duration.ofDays(7), Duration.ofHours(1));
+
+    private final String label;
+    private final Duration length;
+    private final Duration bucketLength;
+
+    public int getBucketCount() {
+        return Math.toIntExact(this.length.dividedBy(this.bucketLength));
+    }
+
+    public static TrendingWindow fromLabel(final String label) {
+        for (TrendingWindow window : values()) {
+            if (window.label.equalsIgnoreCase(label)) {
+                return window;
+            }
+        }
+        throw new InvalidRequestParameterException("Unknown trending window: " + label);
+    }
+}
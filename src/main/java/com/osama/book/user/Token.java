@@ -10,7 +10,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "token")
+@Table(name = "token", indexes = @Index(name = "idx_token_token", columnList = "token"))
 public class Token {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
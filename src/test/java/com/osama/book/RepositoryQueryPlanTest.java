@@ -0,0 +1,336 @@
+package com.osama.book;
+
+import com.osama.book.book.Book;
+import com.osama.book.book.BookExportRepository;
+import com.osama.book.book.BookRepository;
+import com.osama.book.feedback.Feedback;
+import com.osama.book.feedback.FeedbackRepository;
+import com.osama.book.file.StoredFileRepository;
+import com.osama.book.outbox.OutboxEventRepository;
+import com.osama.book.reservation.ReservationRepository;
+import com.osama.book.history.BookTransactionRepository;
+import com.osama.book.history.TransactionHistory;
+import com.osama.book.role.Role;
+import com.osama.book.role.RoleRepository;
+import com.osama.book.stats.DailyBookStatsRepository;
+import com.osama.book.stats.DailyOwnerStatsRepository;
+import com.osama.book.stats.StatsWatermarkRepository;
+import com.osama.book.user.TokenRepository;
+import com.osama.book.user.User;
+import com.osama.book.user.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.osama.book.RepositoryQueryPlanTest$RecordingStatementInspector")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BookExportRepository.class)
+class RepositoryQueryPlanTest {
+
+    private static final int USERS = 20;
+    private static final int BOOKS_PER_USER = 10;
+    private static final LocalDateTime CURSOR_DATE = LocalDateTime.now().plusDays(1);
+
+    @TestConfiguration
+    static class AuditConfig {
+        @Bean
+        AuditorAware<Integer> auditorAware() {
+            return () -> Optional.of(1);
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Repositories repositories;
+
+    private Fixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        final Role role = this.entityManager.persist(Role.builder().name("READER").build());
+        final List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(this.entityManager.persist(User.builder()
+                    .firstName("user" + i)
+                    .lastName("user" + i)
+                    .email("user" + i + "@mail.com")
+                    .enabled(true)
+                    .roles(List.of(role))
+                    .build()));
+        }
+        Book lastBook = null;
+        for (int i = 0; i < USERS * BOOKS_PER_USER; i++) {
+            final User owner = users.get(i % USERS);
+            lastBook = this.entityManager.persist(Book.builder()
+                    .title("title" + i)
+                    .authorName("author")
+                    .isbn("isbn" + i)
+                    .synopsis("synopsis")
+                    .archived(i % 7 == 0)
+                    .shareable(i % 3 != 0)
+                    .owner(owner)
+                    .build());
+            this.entityManager.persist(TransactionHistory.builder()
+                    .book(lastBook)
+                    .user(users.get((i + 1) % USERS))
+                    .ownerId(owner.getId())
+                    .returned(i % 2 == 0)
+                    .returnedApprove(i % 4 == 0)
+                    .build());
+            this.entityManager.persist(Feedback.builder()
+                    .note(4)
+                    .comment("comment")
+                    .book(lastBook)
+                    .build());
+        }
+        this.entityManager.flush();
+        this.entityManager.clear();
+        this.fixture = new Fixture(users.get(0).getId(), lastBook.getId());
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                query("BookRepository.findSummaryById", (r, f) -> r.books().findSummaryById(f.bookId())),
+                query("BookRepository.findSummariesByIdIn", (r, f) -> r.books().findSummariesByIdIn(List.of(f.bookId()))),
+                query("BookRepository.findDisplayableSummariesByIdIn",
+                        (r, f) -> r.books().findDisplayableSummariesByIdIn(List.of(f.bookId()), f.userId())),
+                query("BookRepository.findSearchableBooksAfter", (r, f) -> r.books().findSearchableBooksAfter(f.bookId() - 5, Limit.of(10))),
+                query("BookRepository.findDisplayableCatalog", (r, f) -> r.books().findDisplayableCatalog(Limit.of(10))),
+                query("BookRepository.findAllDisplayableBooks",
+                        (r, f) -> r.books().findAllDisplayableBooks(page(), f.userId())),
+                query("BookRepository.findAllBooksByOwner", (r, f) -> r.books().findAllBooksByOwner(page(), f.userId())),
+                query("BookExportRepository.streamBooksByOwner", (r, f) -> {
+                    try (Stream<?> books = r.exports().streamBooksByOwner(f.userId())) {
+                        books.forEach(book -> { });
+                    }
+                }),
+                query("BookRepository.findDisplayableBooksBefore",
+                        (r, f) -> r.books().findDisplayableBooksBefore(f.userId(), CURSOR_DATE, f.bookId(), Limit.of(10))),
+                query("BookRepository.findOwnerBooksBefore",
+                        (r, f) -> r.books().findOwnerBooksBefore(f.userId(), CURSOR_DATE, f.bookId(), Limit.of(10))),
+                query("BookRepository.addRating", (r, f) -> r.books().addRating(f.bookId(), 3)),
+                query("BookRepository.findForBorrow", (r, f) -> r.books().findForBorrow(f.bookId())),
+                query("BookRepository.findAllForBorrow", (r, f) -> r.books().findAllForBorrow(List.of(f.bookId()))),
+                query("BookRepository.findAllWithOwnerByIdIn", (r, f) -> r.books().findAllWithOwnerByIdIn(List.of(f.bookId()))),
+                query("BookRepository.findForUpdate", (r, f) -> r.books().findForUpdate(f.bookId())),
+                query("BookRepository.findMaxId", (r, f) -> r.books().findMaxId()),
+                query("BookRepository.rebuildRateAggregates", (r, f) -> r.books().rebuildRateAggregates(f.bookId() - 5, f.bookId())),
+                query("BookRepository.rebuildRates", (r, f) -> r.books().rebuildRates(f.bookId() - 5, f.bookId())),
+                query("BookRepository.findBooksWithInconsistentRating",
+                        (r, f) -> r.books().findBooksWithInconsistentRating(f.bookId() - 5, f.bookId())),
+                query("BookTransactionRepository.findAllBorrowedBooks",
+                        (r, f) -> r.transactions().findAllBorrowedBooks(page(), f.userId())),
+                query("BookTransactionRepository.findAllReturnedBooks",
+                        (r, f) -> r.transactions().findAllReturnedBooks(page(), f.userId())),
+                query("BookExportRepository.streamBorrowedBooks", (r, f) -> {
+                    try (Stream<?> books = r.exports().streamBorrowedBooks(f.userId())) {
+                        books.forEach(book -> { });
+                    }
+                }),
+                query("BookTransactionRepository.findBorrowedBooksBefore",
+                        (r, f) -> r.transactions().findBorrowedBooksBefore(f.userId(), CURSOR_DATE, Integer.MAX_VALUE, Limit.of(10))),
+                query("BookTransactionRepository.findReturnedBooksBefore",
+                        (r, f) -> r.transactions().findReturnedBooksBefore(f.userId(), CURSOR_DATE, Integer.MAX_VALUE, Limit.of(10))),
+                query("BookTransactionRepository.findBorrowPairsAfter",
+                        (r, f) -> r.transactions().findBorrowPairsAfter(f.bookId() - 5, Limit.of(10))),
+                query("BookTransactionRepository.findArchivedBorrowPairsAfter",
+                        (r, f) -> r.transactions().findArchivedBorrowPairsAfter(f.bookId() - 5, Limit.of(10))),
+                query("BookTransactionRepository.findBorrowSignalsAfter",
+                        (r, f) -> r.transactions().findBorrowSignalsAfter(CURSOR_DATE.minusDays(8), 0, Limit.of(10))),
+                query("BookTransactionRepository.isAlreadyBorrowed", (r, f) -> r.transactions().isAlreadyBorrowed(f.bookId())),
+                query("BookTransactionRepository.findBorrowedBookIds",
+                        (r, f) -> r.transactions().findBorrowedBookIds(List.of(f.bookId()))),
+                query("BookTransactionRepository.findAllByBookIdInAndUserId",
+                        (r, f) -> r.transactions().findAllByBookIdInAndUserId(List.of(f.bookId()), f.userId())),
+                query("BookTransactionRepository.findAllByBookIdInAndOwnerId",
+                        (r, f) -> r.transactions().findAllByBookIdInAndOwnerId(List.of(f.bookId()), f.userId())),
+                query("BookTransactionRepository.findByBookIdAndUserId",
+                        (r, f) -> r.transactions().findByBookIdAndUserId(f.bookId(), f.userId())),
+                query("BookTransactionRepository.findByBookIdAndOwnerId",
+                        (r, f) -> r.transactions().findByBookIdAndOwnerId(f.bookId(), f.userId())),
+                query("BookTransactionRepository.findMaxId", (r, f) -> r.transactions().findMaxId()),
+                query("BookTransactionRepository.findMaxArchivedId", (r, f) -> r.transactions().findMaxArchivedId()),
+                query("BookTransactionRepository.findFirstIdWithoutOwner",
+                        (r, f) -> r.transactions().findFirstIdWithoutOwner()),
+                query("BookTransactionRepository.findFirstArchivedIdWithoutOwner",
+                        (r, f) -> r.transactions().findFirstArchivedIdWithoutOwner()),
+                query("BookTransactionRepository.backfillOwners",
+                        (r, f) -> r.transactions().backfillOwners(f.bookId() - 5, f.bookId())),
+                query("BookTransactionRepository.findOverdue",
+                        (r, f) -> r.transactions().findOverdue(CURSOR_DATE, CURSOR_DATE.minusDays(30), 0, CURSOR_DATE, Limit.of(10))),
+                query("BookTransactionRepository.markReminded",
+                        (r, f) -> r.transactions().markReminded(List.of(f.bookId()), CURSOR_DATE)),
+                query("BookTransactionRepository.backfillArchivedOwners",
+                        (r, f) -> r.transactions().backfillArchivedOwners(f.bookId() - 5, f.bookId())),
+                query("FeedbackRepository.findAllFeedbacksByBookId",
+                        (r, f) -> r.feedbacks().findAllFeedbacksByBookId(f.bookId(), PageRequest.of(0, 10))),
+                query("FeedbackRepository.findFeedbackSignalsAfter",
+                        (r, f) -> r.feedbacks().findFeedbackSignalsAfter(CURSOR_DATE.minusDays(8), 0, Limit.of(10))),
+                query("UserRepository.findByEmail", (r, f) -> r.users().findByEmail("user1@mail.com")),
+                query("TokenRepository.findByToken", (r, f) -> r.tokens().findByToken("123456")),
+                query("RoleRepository.findByName", (r, f) -> r.roles().findByName("READER")),
+                query("StoredFileRepository.findForUpdate", (r, f) -> r.storedFiles().findForUpdate("hash")),
+                query("OutboxEventRepository.findDueForUpdate",
+                        (r, f) -> r.outboxEvents().findDueForUpdate(CURSOR_DATE, 10, Limit.of(10))),
+                query("OutboxEventRepository.scheduleUnscheduled",
+                        (r, f) -> r.outboxEvents().scheduleUnscheduled()),
+                query("OutboxEventRepository.findOldestPendingCreatedAt",
+                        (r, f) -> r.outboxEvents().findOldestPendingCreatedAt(10)),
+                query("OutboxEventRepository.countExhausted",
+                        (r, f) -> r.outboxEvents().countExhausted(10)),
+                query("ReservationRepository.isAlreadyReserved",
+                        (r, f) -> r.reservations().isAlreadyReserved(f.bookId(), f.userId())),
+                query("ReservationRepository.findHold", (r, f) -> r.reservations().findHold(f.bookId())),
+                query("ReservationRepository.findExpiredHolds",
+                        (r, f) -> r.reservations().findExpiredHolds(CURSOR_DATE, Limit.of(10))),
+                query("ReservationRepository.findWaitingIds", (r, f) -> r.reservations().findWaitingIds(f.bookId())),
+                query("StatsWatermarkRepository.findForUpdate", (r, f) -> r.watermarks().findForUpdate("daily-stats")),
+                query("DailyOwnerStatsRepository.findAllByStatDateInAndOwnerIdIn",
+                        (r, f) -> r.ownerStats().findAllByStatDateInAndOwnerIdIn(List.of(LocalDate.now()), List.of(f.userId()))),
+                query("DailyOwnerStatsRepository.findDailyStats",
+                        (r, f) -> r.ownerStats().findDailyStats(LocalDate.now().minusDays(30), LocalDate.now())),
+                query("DailyOwnerStatsRepository.findDailyStatsByOwner",
+                        (r, f) -> r.ownerStats().findDailyStatsByOwner(f.userId(), LocalDate.now().minusDays(30), LocalDate.now())),
+                query("DailyOwnerStatsRepository.deleteByStatDate",
+                        (r, f) -> r.ownerStats().deleteByStatDate(LocalDate.now())),
+                query("DailyBookStatsRepository.findAllByStatDateInAndBookIdIn",
+                        (r, f) -> r.bookStats().findAllByStatDateInAndBookIdIn(List.of(LocalDate.now()), List.of(f.bookId()))),
+                query("DailyBookStatsRepository.findMostBorrowed",
+                        (r, f) -> r.bookStats().findMostBorrowed(LocalDate.now().minusDays(30), LocalDate.now(), Limit.of(10))),
+                query("DailyBookStatsRepository.findMostBorrowedByOwner",
+                        (r, f) -> r.bookStats().findMostBorrowedByOwner(f.userId(), LocalDate.now().minusDays(30), LocalDate.now(), Limit.of(10))),
+                query("DailyBookStatsRepository.deleteByStatDate",
+                        (r, f) -> r.bookStats().deleteByStatDate(LocalDate.now()))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQueryDoesNotScanWholeTable(final String name, final RepositoryQuery query) {
+        query.run(this.repositories, this.fixture);
+
+        final List<String> statements = List.copyOf(RecordingStatementInspector.STATEMENTS);
+        assertThat(statements).as("statements executed by %s", name).isNotEmpty();
+        for (String statement : statements) {
+            final String plan = explain(statement);
+            assertThat(plan)
+                    .as("plan of %s%n%s", name, plan)
+                    .doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    private String explain(final String statement) {
+        final int parameters = (int) statement.chars().filter(character -> character == '?').count();
+        return this.jdbcTemplate.query("EXPLAIN " + statement,
+                preparedStatement -> {
+                    for (int i = 1; i <= parameters; i++) {
+                        preparedStatement.setObject(i, null);
+                    }
+                },
+                resultSet -> {
+                    final StringBuilder plan = new StringBuilder();
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                    return plan.toString();
+                });
+    }
+
+    private static PageRequest page() {
+        return PageRequest.of(1, 5, Sort.by("createdDate").descending());
+    }
+
+    private static Arguments query(final String name, final RepositoryQuery query) {
+        return Arguments.of(name, query);
+    }
+
+    @FunctionalInterface
+    interface RepositoryQuery {
+        void run(Repositories repositories, Fixture fixture);
+    }
+
+    record Fixture(Integer userId, Integer bookId) {}
+
+    record Repositories(
+            BookRepository books,
+            BookTransactionRepository transactions,
+            FeedbackRepository feedbacks,
+            UserRepository users,
+            TokenRepository tokens,
+            RoleRepository roles,
+            StoredFileRepository storedFiles,
+            OutboxEventRepository outboxEvents,
+            ReservationRepository reservations,
+            StatsWatermarkRepository watermarks,
+            DailyOwnerStatsRepository ownerStats,
+            DailyBookStatsRepository bookStats,
+            BookExportRepository exports) {}
+
+    @TestConfiguration
+    static class RepositoriesConfig {
+        @Bean
+        Repositories repositories(
+                final BookRepository books,
+                final BookTransactionRepository transactions,
+                final FeedbackRepository feedbacks,
+                final UserRepository users,
+                final TokenRepository tokens,
+                final RoleRepository roles,
+                final StoredFileRepository storedFiles,
+                final OutboxEventRepository outboxEvents,
+                final ReservationRepository reservations,
+                final StatsWatermarkRepository watermarks,
+                final DailyOwnerStatsRepository ownerStats,
+                final DailyBookStatsRepository bookStats,
+                final BookExportRepository exports) {
+            return new Repositories(
+                    books, transactions, feedbacks, users, tokens, roles, storedFiles, outboxEvents, reservations,
+                    watermarks, ownerStats, bookStats, exports);
+        }
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(final String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
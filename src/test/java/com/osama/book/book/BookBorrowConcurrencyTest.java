@@ -0,0 +1,230 @@
+package com.osama.book.book;
+
+import com.osama.book.cover.CoverJobService;
+import com.osama.book.exception.OperationNotPermittedException;
+import com.osama.book.file.FileStorageService;
+import com.osama.book.history.BookTransactionRepository;
+import com.osama.book.outbox.OutboxEventPublisher;
+import com.osama.book.outbox.OutboxEventRepository;
+import com.osama.book.recommendation.RelatedBooksIndex;
+import com.osama.book.reservation.ReservationService;
+import com.osama.book.role.Role;
+import com.osama.book.role.RoleRepository;
+import com.osama.book.search.BookSearchIndex;
+import com.osama.book.trending.TrendingBooks;
+import com.osama.book.user.User;
+import com.osama.book.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BookService.class, BookMapper.class, OutboxEventPublisher.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class BookBorrowConcurrencyTest {
+
+    private static final int BORROWERS = 200;
+    private static final int THREADS = 32;
+
+    @TestConfiguration
+    static class AuditConfig {
+        @Bean
+        AuditorAware<Integer> auditorAware() {
+            return () -> Optional.of(1);
+        }
+
+        @Bean
+        SwitchableBookLockManager bookLockManager() {
+            return new SwitchableBookLockManager();
+        }
+    }
+
+    static class SwitchableBookLockManager extends BookLockManager {
+
+        private volatile boolean enabled = true;
+
+        SwitchableBookLockManager() {
+            super(new SimpleMeterRegistry(), 64, Duration.ofMinutes(1));
+        }
+
+        @Override
+        public <T> T withLock(final Integer bookId, final Supplier<T> action) {
+            return this.enabled ? super.withLock(bookId, action) : action.get();
+        }
+
+        @Override
+        public <T> T withLocks(final Collection<Integer> bookIds, final Supplier<T> action) {
+            return this.enabled ? super.withLocks(bookIds, action) : action.get();
+        }
+    }
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @MockitoBean
+    private BookSearchIndex bookSearchIndex;
+
+    @MockitoBean
+    private BookCatalogCache bookCatalogCache;
+
+    @MockitoBean
+    private CoverJobService coverJobService;
+
+    @MockitoBean
+    private RelatedBooksIndex relatedBooksIndex;
+
+    @MockitoBean
+    private TrendingBooks trendingBooks;
+
+    @MockitoBean
+    private ReservationService reservationService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookTransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SwitchableBookLockManager bookLockManager;
+
+    private User owner;
+    private Book book;
+    private final List<User> borrowers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            final Role role = this.roleRepository.save(Role.builder().name("USER").build());
+            this.owner = this.userRepository.save(user("owner", role));
+            for (int i = 0; i < BORROWERS; i++) {
+                this.borrowers.add(this.userRepository.save(user("borrower" + i, role)));
+            }
+            this.book = this.bookRepository.save(Book.builder()
+                    .title("title")
+                    .authorName("author")
+                    .isbn("isbn")
+                    .synopsis("synopsis")
+                    .shareable(true)
+                    .owner(this.owner)
+                    .build());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.bookLockManager.enabled = true;
+        this.outboxEventRepository.deleteAllInBatch();
+        this.transactionRepository.deleteAllInBatch();
+        this.bookRepository.deleteAllInBatch();
+        this.userRepository.deleteAll();
+        this.roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void concurrentBorrowsOfOneBookLetExactlyOneSucceed() throws Exception {
+        assertThat(borrowConcurrently()).isEqualTo(1);
+        assertThat(this.transactionRepository.isAlreadyBorrowed(this.book.getId())).isTrue();
+        assertThat(this.transactionRepository.count()).isEqualTo(1);
+        assertThat(this.outboxEventRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void databaseGuardsLetExactlyOneConcurrentBorrowSucceedWithoutTheLockManager() throws Exception {
+        this.bookLockManager.enabled = false;
+
+        assertThat(borrowConcurrently()).isEqualTo(1);
+        assertThat(this.transactionRepository.isAlreadyBorrowed(this.book.getId())).isTrue();
+        assertThat(this.transactionRepository.count()).isEqualTo(1);
+        assertThat(this.outboxEventRepository.count()).isEqualTo(1);
+    }
+
+    private int borrowConcurrently() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Boolean>> attempts = new ArrayList<>();
+        for (User borrower : this.borrowers) {
+            attempts.add(executor.submit(() -> {
+                start.await();
+                try {
+                    this.bookService.borrowBook(this.book.getId(),
+                            new UsernamePasswordAuthenticationToken(borrower, null, List.of()));
+                    return true;
+                } catch (OperationNotPermittedException e) {
+                    return false;
+                }
+            }));
+        }
+
+        final long startedAt = System.nanoTime();
+        start.countDown();
+        int succeeded = 0;
+        for (Future<Boolean> attempt : attempts) {
+            if (attempt.get(1, TimeUnit.MINUTES)) {
+                succeeded++;
+            }
+        }
+        final long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        log.info("{} concurrent borrows on {} threads in {} ms", BORROWERS, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        return succeeded;
+    }
+
+    private User user(final String name, final Role role) {
+        return User.builder()
+                .firstName(name)
+                .lastName(name)
+                .email(name + "@mail.com")
+                .enabled(true)
+                .roles(List.of(role))
+                .build();
+    }
+}
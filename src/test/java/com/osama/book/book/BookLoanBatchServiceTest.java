@@ -0,0 +1,182 @@
+package com.osama.book.book;
+
+import com.osama.book.book.response.BookBatchItem;
+import com.osama.book.book.response.BookBatchResponse;
+import com.osama.book.history.BookTransactionRepository;
+import com.osama.book.outbox.OutboxEventPublisher;
+import com.osama.book.outbox.OutboxEventRepository;
+import com.osama.book.reservation.Reservation;
+import com.osama.book.reservation.ReservationRepository;
+import com.osama.book.reservation.ReservationService;
+import com.osama.book.reservation.ReservationStatus;
+import com.osama.book.role.Role;
+import com.osama.book.role.RoleRepository;
+import com.osama.book.user.User;
+import com.osama.book.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "application.reservation.hold-duration=24h",
+        "application.reservation.expiry-interval=1h",
+        "application.reservation.expiry-batch-size=100",
+        "application.reservation.index.maximum-books=100"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BookLoanBatchService.class, OutboxEventPublisher.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookLoanBatchServiceTest {
+
+    @TestConfiguration
+    @ComponentScan(basePackageClasses = ReservationService.class)
+    static class AuditConfig {
+        @Bean
+        AuditorAware<Integer> auditorAware() {
+            return () -> Optional.of(1);
+        }
+
+        @Bean
+        BookLockManager bookLockManager() {
+            return new BookLockManager(new SimpleMeterRegistry(), 64, Duration.ofMinutes(1));
+        }
+    }
+
+    @Autowired
+    private BookLoanBatchService bookLoanBatchService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookTransactionRepository transactionRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private User reader;
+    private Book reservedBook;
+    private Book freeBook;
+
+    @BeforeEach
+    void setUp() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            final Role role = this.roleRepository.save(Role.builder().name("READER").build());
+            this.owner = this.userRepository.save(user("owner", role));
+            final User holder = this.userRepository.save(user("holder", role));
+            this.reader = this.userRepository.save(user("reader", role));
+            this.reservedBook = this.bookRepository.save(book("reserved", this.owner));
+            this.freeBook = this.bookRepository.save(book("free", this.owner));
+            this.reservationRepository.save(Reservation.builder()
+                    .bookId(this.reservedBook.getId())
+                    .userId(holder.getId())
+                    .status(ReservationStatus.HELD)
+                    .createdAt(LocalDateTime.now())
+                    .heldUntil(LocalDateTime.now().plusDays(1))
+                    .build());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.outboxEventRepository.deleteAllInBatch();
+        this.reservationRepository.deleteAllInBatch();
+        this.transactionRepository.deleteAllInBatch();
+        this.bookRepository.deleteAllInBatch();
+        this.userRepository.deleteAll();
+        this.roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void borrowingABatchWithABookHeldForAnotherReaderStillBorrowsTheOthers() {
+        final BookBatchResponse response = this.bookLoanBatchService.borrowBooks(
+                List.of(this.reservedBook.getId(), this.freeBook.getId()),
+                new UsernamePasswordAuthenticationToken(this.reader, null, List.of()));
+
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getItems())
+                .filteredOn(item -> item.getBookId().equals(this.reservedBook.getId()))
+                .singleElement()
+                .extracting(BookBatchItem::getError)
+                .asString()
+                .contains("reserved for another reader");
+        assertThat(this.transactionRepository.isAlreadyBorrowed(this.freeBook.getId())).isTrue();
+        assertThat(this.transactionRepository.isAlreadyBorrowed(this.reservedBook.getId())).isFalse();
+        assertThat(this.outboxEventRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void borrowingABatchLargerThanOneLockedChunkBorrowsEveryBook() {
+        final List<Integer> bookIds = new ArrayList<>();
+        this.transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 40; i++) {
+                bookIds.add(this.bookRepository.save(book("book" + i, this.owner)).getId());
+            }
+        });
+
+        final BookBatchResponse response = this.bookLoanBatchService.borrowBooks(
+                bookIds, new UsernamePasswordAuthenticationToken(this.reader, null, List.of()));
+
+        assertThat(response.getSucceeded()).isEqualTo(40);
+        assertThat(response.getItems()).extracting(BookBatchItem::getBookId).containsExactlyElementsOf(bookIds);
+        assertThat(this.outboxEventRepository.count()).isEqualTo(40);
+    }
+
+    private Book book(final String title, final User owner) {
+        return Book.builder()
+                .title(title)
+                .authorName("author")
+                .isbn(title)
+                .synopsis("synopsis")
+                .shareable(true)
+                .owner(owner)
+                .build();
+    }
+
+    private User user(final String name, final Role role) {
+        return User.builder()
+                .firstName(name)
+                .lastName(name)
+                .email(name + "@mail.com")
+                .enabled(true)
+                .roles(List.of(role))
+                .build();
+    }
+}
@@ -0,0 +1,149 @@
+package com.osama.book.book;
+
+import com.osama.book.history.BookTransactionRepository;
+import com.osama.book.history.TransactionHistory;
+import com.osama.book.role.Role;
+import com.osama.book.user.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BookRepositoryTest {
+
+    private static final int PAGE_SIZE = 10;
+    private static final long MAX_STATEMENTS_PER_PAGE = 2;
+
+    @TestConfiguration
+    static class AuditConfig {
+        @Bean
+        AuditorAware<Integer> auditorAware() {
+            return () -> Optional.of(1);
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookTransactionRepository transactionRepository;
+
+    private final BookMapper bookMapper = new BookMapper();
+
+    private User reader;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        final Role role = this.entityManager.persist(Role.builder().name("USER").build());
+        this.reader = this.entityManager.persist(user("reader", role));
+        final List<User> owners = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            owners.add(this.entityManager.persist(user("owner" + i, role)));
+        }
+        for (int i = 0; i < PAGE_SIZE * 2; i++) {
+            final Book book = this.entityManager.persist(Book.builder()
+                    .title("title" + i)
+                    .authorName("author")
+                    .isbn("isbn" + i)
+                    .synopsis("synopsis")
+                    .shareable(true)
+                    .owner(owners.get(i % owners.size()))
+                    .build());
+            this.entityManager.persist(TransactionHistory.builder()
+                    .book(book)
+                    .user(this.reader)
+                    .ownerId(book.getOwner().getId())
+                    .build());
+        }
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.clear();
+    }
+
+    @Test
+    void displayableBooksPageIsProjectedInFixedNumberOfStatements() {
+        this.bookRepository.findAllDisplayableBooks(page(), this.reader.getId())
+                .forEach(this.bookMapper::toBookResponse);
+
+        assertProjectedPage();
+    }
+
+    @Test
+    void ownerBooksPageIsProjectedInFixedNumberOfStatements() {
+        this.bookRepository.findAllBooksByOwner(page(), ownerId())
+                .forEach(this.bookMapper::toBookResponse);
+
+        assertProjectedPage();
+    }
+
+    @Test
+    void borrowedBooksPageIsProjectedInFixedNumberOfStatements() {
+        this.transactionRepository.findAllBorrowedBooks(page(), this.reader.getId())
+                .forEach(this.bookMapper::toBorrowedBookResponse);
+
+        assertProjectedPage();
+    }
+
+    @Test
+    void returnedBooksPageIsProjectedInFixedNumberOfStatements() {
+        this.transactionRepository.findAllReturnedBooks(page(), ownerId())
+                .forEach(this.bookMapper::toBorrowedBookResponse);
+
+        assertProjectedPage();
+    }
+
+    private void assertProjectedPage() {
+        assertThat(this.statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+        assertThat(this.statistics.getEntityLoadCount()).isZero();
+    }
+
+    private Integer ownerId() {
+        final Integer ownerId = this.bookRepository.findAll().get(0).getOwner().getId();
+        this.entityManager.clear();
+        this.statistics.clear();
+        return ownerId;
+    }
+
+    private PageRequest page() {
+        return PageRequest.of(0, PAGE_SIZE, Sort.by("createdDate").descending());
+    }
+
+    private User user(final String name, final Role role) {
+        return User.builder()
+                .firstName(name)
+                .lastName(name)
+                .email(name + "@mail.com")
+                .enabled(true)
+                .roles(List.of(role))
+                .build();
+    }
+}
@@ -0,0 +1,197 @@
+package com.osama.book.book;
+
+import com.osama.book.book.request.BookRequest;
+import com.osama.book.book.response.BookResponse;
+import com.osama.book.cover.CoverJobService;
+import com.osama.book.file.FileStorageService;
+import com.osama.book.history.BookTransactionRepository;
+import com.osama.book.outbox.OutboxEventPublisher;
+import com.osama.book.outbox.OutboxEventRepository;
+import com.osama.book.recommendation.RelatedBooksIndex;
+import com.osama.book.reservation.ReservationService;
+import com.osama.book.role.Role;
+import com.osama.book.role.RoleRepository;
+import com.osama.book.search.BookSearchIndex;
+import com.osama.book.trending.TrendingBooks;
+import com.osama.book.user.User;
+import com.osama.book.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "application.cache.catalog.maximum-entries=100",
+        "application.cache.catalog.maximum-catalog-size=100",
+        "application.cache.catalog.expire-after-write=10m"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BookService.class, BookMapper.class, BookCatalogCache.class, OutboxEventPublisher.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookServiceTest {
+
+    @TestConfiguration
+    static class AuditConfig {
+        @Bean
+        AuditorAware<Integer> auditorAware() {
+            return () -> Optional.of(1);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        BookLockManager bookLockManager() {
+            return new BookLockManager(new SimpleMeterRegistry(), 64, Duration.ofMinutes(1));
+        }
+    }
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @MockitoBean
+    private BookSearchIndex bookSearchIndex;
+
+    @MockitoBean
+    private CoverJobService coverJobService;
+
+    @MockitoBean
+    private RelatedBooksIndex relatedBooksIndex;
+
+    @MockitoBean
+    private TrendingBooks trendingBooks;
+
+    @MockitoBean
+    private ReservationService reservationService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookTransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private User reader;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            final Role role = this.roleRepository.save(Role.builder().name("USER").build());
+            this.owner = this.userRepository.save(user("owner", role));
+            this.reader = this.userRepository.save(user("reader", role));
+            this.book = this.bookRepository.save(Book.builder()
+                    .title("title")
+                    .authorName("author")
+                    .isbn("isbn")
+                    .synopsis("synopsis")
+                    .shareable(true)
+                    .rateSum(9)
+                    .rateCount(2)
+                    .rate(4.5)
+                    .owner(this.owner)
+                    .build());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.outboxEventRepository.deleteAllInBatch();
+        this.transactionRepository.deleteAllInBatch();
+        this.bookRepository.deleteAllInBatch();
+        this.userRepository.deleteAll();
+        this.roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void editedBookIsServedFreshFromTheCachedCatalog() {
+        final UsernamePasswordAuthenticationToken reader = new UsernamePasswordAuthenticationToken(this.reader, null, List.of());
+        assertThat(this.bookService.findAll(0, 10, reader).getContent())
+                .extracting(BookResponse::getTitle)
+                .containsExactly("title");
+
+        this.bookService.save(edit("new title"), new UsernamePasswordAuthenticationToken(this.owner, null, List.of()));
+
+        assertThat(this.bookService.findAll(0, 10, reader).getContent())
+                .singleElement()
+                .satisfies(response -> {
+                    assertThat(response.getTitle()).isEqualTo("new title");
+                    assertThat(response.getAuthorName()).isEqualTo("new author");
+                });
+    }
+
+    @Test
+    void ownerCanEditABookAfterItWasBorrowedWithoutLosingItsRating() {
+        this.bookService.borrowBook(this.book.getId(), new UsernamePasswordAuthenticationToken(this.reader, null, List.of()));
+        final long borrowedVersion = this.bookRepository.findById(this.book.getId()).orElseThrow().getVersion();
+
+        this.bookService.save(edit("new title"), new UsernamePasswordAuthenticationToken(this.owner, null, List.of()));
+
+        final Book edited = this.bookRepository.findById(this.book.getId()).orElseThrow();
+        assertThat(edited.getTitle()).isEqualTo("new title");
+        assertThat(edited.getVersion()).isGreaterThan(borrowedVersion);
+        assertThat(edited.getOwner().getId()).isEqualTo(this.owner.getId());
+        assertThat(edited.getRateSum()).isEqualTo(9);
+        assertThat(edited.getRateCount()).isEqualTo(2);
+        assertThat(edited.getRate()).isEqualTo(4.5);
+    }
+
+    private BookRequest edit(final String title) {
+        return BookRequest.builder()
+                .id(this.book.getId())
+                .title(title)
+                .authorName("new author")
+                .isbn("isbn")
+                .synopsis("synopsis")
+                .shareable(true)
+                .build();
+    }
+
+    private User user(final String name, final Role role) {
+        return User.builder()
+                .firstName(name)
+                .lastName(name)
+                .email(name + "@mail.com")
+                .enabled(true)
+                .roles(List.of(role))
+                .build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.osama.book.cover;
+
+import com.osama.book.book.Book;
+import com.osama.book.book.BookCatalogCache;
+import com.osama.book.book.BookRepository;
+import com.osama.book.file.CoverByteCache;
+import com.osama.book.file.FileStorageService;
+import com.osama.book.file.StoredFileRepository;
+import com.osama.book.role.Role;
+import com.osama.book.role.RoleRepository;
+import com.osama.book.user.User;
+import com.osama.book.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "application.file.upload.max-file-size=1MB",
+        "application.cover.executor.pool-size=1",
+        "application.cover.executor.queue-capacity=10"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CoverJobService.class, CoverJobMapper.class, CoverRenditionWriter.class, FileStorageService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CoverJobServiceTest {
+
+    @TempDir
+    static Path uploadDirectory;
+
+    @DynamicPropertySource
+    static void uploadPath(final DynamicPropertyRegistry registry) {
+        registry.add("application.file.upload.photos-output-path", uploadDirectory::toString);
+    }
+
+    @TestConfiguration
+    static class AuditConfig {
+        @Bean
+        AuditorAware<Integer> auditorAware() {
+            return () -> Optional.of(1);
+        }
+    }
+
+    @MockitoBean
+    private BookCatalogCache bookCatalogCache;
+
+    @MockitoBean
+    private CoverByteCache coverByteCache;
+
+    @Autowired
+    private CoverJobService coverJobService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private CoverJobRepository coverJobRepository;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            final Role role = this.roleRepository.save(Role.builder().name("USER").build());
+            final User owner = this.userRepository.save(User.builder()
+                    .firstName("owner")
+                    .lastName("owner")
+                    .email("owner@mail.com")
+                    .enabled(true)
+                    .roles(List.of(role))
+                    .build());
+            this.book = this.bookRepository.save(Book.builder()
+                    .title("title")
+                    .authorName("author")
+                    .isbn("isbn")
+                    .synopsis("synopsis")
+                    .shareable(true)
+                    .owner(owner)
+                    .build());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.coverJobRepository.deleteAllInBatch();
+        this.storedFileRepository.deleteAllInBatch();
+        this.bookRepository.deleteAllInBatch();
+        this.userRepository.deleteAll();
+        this.roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void uploadingTheSameCoverAgainKeepsASingleReference() throws Exception {
+        final MockMultipartFile cover = new MockMultipartFile("file", "cover.png", "image/png", png());
+
+        final String firstHash = upload(cover);
+        final String secondHash = upload(cover);
+
+        assertThat(secondHash).isEqualTo(firstHash);
+        assertThat(this.storedFileRepository.findById(firstHash).orElseThrow().getRefCount()).isEqualTo(1);
+    }
+
+    private String upload(final MockMultipartFile cover) throws InterruptedException {
+        final String hash = this.fileStorageService.saveFile(cover);
+        final Integer jobId = this.coverJobService.enqueue(this.book.getId(), hash).getId();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (this.coverJobService.findById(jobId).getStatus() != CoverJobStatus.COMPLETED) {
+            assertThat(this.coverJobService.findById(jobId).getStatus()).isNotEqualTo(CoverJobStatus.FAILED);
+            assertThat(System.nanoTime()).as("cover job %d completes", jobId).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+        return hash;
+    }
+
+    private static byte[] png() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "png", output);
+        return output.toByteArray();
+    }
+}
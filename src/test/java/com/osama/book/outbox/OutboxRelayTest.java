@@ -0,0 +1,155 @@
+package com.osama.book.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "application.outbox.poll-interval=1h",
+        "application.outbox.batch-size=10",
+        "application.outbox.max-attempts=2",
+        "application.outbox.claim-timeout=10m",
+        "application.outbox.retry-backoff=1h",
+        "application.outbox.max-retry-backoff=1h"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OutboxRelay.class, OutboxEventPublisher.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @TestConfiguration
+    static class RelayConfig {
+        @Bean
+        AuditorAware<Integer> auditorAware() {
+            return () -> Optional.of(1);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+
+    static class RecordingSubscriber implements DomainEventSubscriber {
+
+        private final List<Long> delivered = new CopyOnWriteArrayList<>();
+        private final Set<Integer> failingBooks = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void onEvent(final DomainEvent event) {
+            if (this.failingBooks.contains(event.bookId())) {
+                throw new IllegalStateException("Subscriber unavailable");
+            }
+            this.delivered.add(event.id());
+        }
+    }
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventPublisher outboxEventPublisher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private RecordingSubscriber subscriber;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        this.outboxEventRepository.deleteAllInBatch();
+        this.subscriber.delivered.clear();
+        this.subscriber.failingBooks.clear();
+    }
+
+    @Test
+    void failedEventBacksOffAndHoldsBackTheLaterEventsOfItsBook() {
+        final List<Long> ids = publish(1, 1, 2);
+        this.subscriber.failingBooks.add(1);
+
+        this.outboxRelay.relay();
+        this.subscriber.failingBooks.clear();
+        this.outboxRelay.relay();
+
+        assertThat(this.subscriber.delivered).containsExactly(ids.get(2));
+        final OutboxEvent failed = this.outboxEventRepository.findById(ids.get(0)).orElseThrow();
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isAfter(LocalDateTime.now().plusMinutes(30));
+
+        makeDue(ids.get(0));
+        this.outboxRelay.relay();
+
+        assertThat(this.subscriber.delivered).containsExactly(ids.get(2), ids.get(0), ids.get(1));
+        assertThat(this.outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void exhaustedEventKeepsBlockingItsBookAndIsCounted() {
+        final List<Long> ids = publish(1, 1);
+        this.subscriber.failingBooks.add(1);
+
+        this.outboxRelay.relay();
+        makeDue(ids.get(0));
+        this.outboxRelay.relay();
+        this.subscriber.failingBooks.clear();
+        makeDue(ids.get(0));
+        this.outboxRelay.relay();
+
+        assertThat(this.subscriber.delivered).isEmpty();
+        assertThat(this.outboxEventRepository.findById(ids.get(0)).orElseThrow().getAttempts()).isEqualTo(2);
+        assertThat(this.outboxEventRepository.existsById(ids.get(1))).isTrue();
+        assertThat(this.meterRegistry.get("book.outbox.exhausted").gauge().value()).isEqualTo(1);
+    }
+
+    private List<Long> publish(final Integer... bookIds) {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            for (Integer bookId : bookIds) {
+                this.outboxEventPublisher.publish(DomainEventType.BOOK_BORROWED, bookId, 1, 1);
+            }
+        });
+        return this.outboxEventRepository.findAll().stream()
+                .map(OutboxEvent::getId)
+                .sorted()
+                .toList();
+    }
+
+    private void makeDue(final Long eventId) {
+        this.transactionTemplate.executeWithoutResult(status -> this.outboxEventRepository.findById(eventId)
+                .orElseThrow()
+                .setNextAttemptAt(LocalDateTime.now().minusSeconds(1)));
+    }
+}
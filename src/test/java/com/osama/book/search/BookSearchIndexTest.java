@@ -0,0 +1,178 @@
+package com.osama.book.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@Slf4j
+class BookSearchIndexTest {
+
+    private static final int VOCABULARY = 2000;
+    private static final int LIMIT = 10;
+
+    @Test
+    void rankingMatchesExhaustiveBm25AcrossEditsAndRemovals() {
+        final Random random = new Random(42);
+        final BookSearchIndex index = new BookSearchIndex(null);
+        final Map<Integer, SearchableBook> corpus = new HashMap<>();
+        for (int id = 1; id <= 3000; id++) {
+            put(index, corpus, randomBook(random, id));
+        }
+        for (int edit = 0; edit < 5000; edit++) {
+            final int id = 1 + random.nextInt(3000);
+            if (random.nextInt(10) == 0) {
+                index.remove(id);
+                corpus.remove(id);
+            } else {
+                put(index, corpus, randomBook(random, id));
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            final String query = word(random) + " " + word(random) + (i % 3 == 0 ? " " + word(random) : "");
+            final int userId = 1 + random.nextInt(50);
+            final Map<Integer, Double> expected = exhaustiveScores(corpus, query, userId);
+            final List<Double> expectedTop = expected.values().stream()
+                    .sorted((first, second) -> Double.compare(second, first))
+                    .limit(LIMIT)
+                    .toList();
+
+            final List<Integer> found = index.search(query, userId, LIMIT);
+
+            assertThat(found).as("results of %s", query).hasSameSizeAs(expectedTop);
+            for (int rank = 0; rank < found.size(); rank++) {
+                assertThat(expected.get(found.get(rank))).as("score of rank %d for %s", rank, query)
+                        .isCloseTo(expectedTop.get(rank), within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    void hidesArchivedUnshareableAndOwnBooks() {
+        final BookSearchIndex index = new BookSearchIndex(null);
+        index.index(new SearchableBook(1, 10, "dune", "herbert", "isbn1", "desert", false, true));
+        index.index(new SearchableBook(2, 10, "dune", "herbert", "isbn2", "desert", true, true));
+        index.index(new SearchableBook(3, 10, "dune", "herbert", "isbn3", "desert", false, false));
+        index.index(new SearchableBook(4, 20, "dune", "herbert", "isbn4", "desert", false, true));
+
+        assertThat(index.search("dune", 20, LIMIT)).containsExactly(1);
+
+        index.index(new SearchableBook(1, 10, "dune", "herbert", "isbn1", "desert", true, true));
+        assertThat(index.search("dune", 20, LIMIT)).isEmpty();
+        assertThat(index.search("dune", 30, LIMIT)).containsExactly(4);
+    }
+
+    @Test
+    void sizesResultsByTheLiveBooksWhenTheLimitIsLarger() {
+        final BookSearchIndex index = new BookSearchIndex(null);
+        index.index(new SearchableBook(1, 10, "dune", "herbert", "isbn1", "desert", false, true));
+        index.index(new SearchableBook(2, 10, "dune messiah", "herbert", "isbn2", "desert", false, true));
+
+        assertThat(index.search("dune", 20, Integer.MAX_VALUE)).containsExactly(1, 2);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void answersTheMedianQueryWithinFiveMillisecondsAtOneMillionBooks() {
+        final Random random = new Random(7);
+        final BookSearchIndex index = new BookSearchIndex(null);
+        for (int id = 1; id <= 1_000_000; id++) {
+            index.index(randomBook(random, id));
+        }
+        final List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            queries.add(word(random) + " " + word(random));
+        }
+        queries.forEach(query -> index.search(query, 1, LIMIT));
+
+        final long[] latencies = new long[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            final long startedAt = System.nanoTime();
+            index.search(queries.get(i), 1 + random.nextInt(50), LIMIT);
+            latencies[i] = System.nanoTime() - startedAt;
+        }
+        Arrays.sort(latencies);
+        final long p50 = TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length / 2]);
+        final long p99 = TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length * 99 / 100]);
+        log.info("Search over 1M books: p50={}us p99={}us", p50, p99);
+        assertThat(p50).isLessThan(5_000);
+    }
+
+    private static void put(final BookSearchIndex index, final Map<Integer, SearchableBook> corpus, final SearchableBook book) {
+        index.index(book);
+        corpus.put(book.id(), book);
+    }
+
+    private static SearchableBook randomBook(final Random random, final int id) {
+        return new SearchableBook(
+                id,
+                1 + random.nextInt(50),
+                words(random, 1 + random.nextInt(4)),
+                words(random, 2),
+                "isbn" + id,
+                words(random, 5 + random.nextInt(30)),
+                random.nextInt(10) == 0,
+                random.nextInt(10) != 0);
+    }
+
+    private static String words(final Random random, final int count) {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(word(random)).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static String word(final Random random) {
+        final double zipf = Math.pow(VOCABULARY, random.nextDouble());
+        return "w" + (int) zipf;
+    }
+
+    private static Map<Integer, Double> exhaustiveScores(final Map<Integer, SearchableBook> corpus, final String query, final int userId) {
+        final Map<Integer, Map<String, Integer>> frequencies = new HashMap<>();
+        final Map<String, Integer> documentFrequencies = new HashMap<>();
+        long totalLength = 0;
+        for (SearchableBook book : corpus.values()) {
+            final Map<String, Integer> termFrequencies = new HashMap<>();
+            tokens(book.title()).forEach(term -> termFrequencies.merge(term, 2, Integer::sum));
+            tokens(book.authorName()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+            tokens(book.isbn()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+            tokens(book.synopsis()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+            frequencies.put(book.id(), termFrequencies);
+            termFrequencies.keySet().forEach(term -> documentFrequencies.merge(term, 1, Integer::sum));
+            totalLength += termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+        }
+        final double averageLength = (double) totalLength / corpus.size();
+        final Map<Integer, Double> scores = new HashMap<>();
+        for (String term : tokens(query).stream().distinct().toList()) {
+            final int documentFrequency = documentFrequencies.getOrDefault(term, 0);
+            final double idf = Math.log(1 + (corpus.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            for (SearchableBook book : corpus.values()) {
+                final Integer frequency = frequencies.get(book.id()).get(term);
+                if (frequency == null || book.archived() || !book.shareable() || book.ownerId() == userId) {
+                    continue;
+                }
+                final int length = frequencies.get(book.id()).values().stream().mapToInt(Integer::intValue).sum();
+                scores.merge(book.id(), idf * frequency * 2.2 / (frequency + 1.2 * (0.25 + 0.75 * length / averageLength)), Double::sum);
+            }
+        }
+        return scores;
+    }
+
+    private static List<String> tokens(final String text) {
+        return Arrays.stream(text.trim().split("\\s+"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,71 @@
+package com.osama.book.trending;
+
+import com.osama.book.feedback.FeedbackRepository;
+import com.osama.book.history.BookTransactionRepository;
+import com.osama.book.outbox.DomainEvent;
+import com.osama.book.outbox.DomainEventType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TrendingBooksTest {
+
+    private final BookTransactionRepository transactionRepository = mock(BookTransactionRepository.class);
+    private final FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+
+    @Test
+    void countsEventsInTheWindowsOfWhenTheyOccurred() {
+        final TrendingBooks trendingBooks = new TrendingBooks(this.transactionRepository, this.feedbackRepository, 10, 1000);
+        trendingBooks.onEvent(borrow(1L, 1, LocalDateTime.now()));
+        trendingBooks.onEvent(borrow(2L, 2, LocalDateTime.now().minusHours(3)));
+        trendingBooks.onEvent(borrow(3L, 2, LocalDateTime.now().minusHours(3)));
+        trendingBooks.onEvent(borrow(4L, 3, LocalDateTime.now().minusDays(8)));
+
+        trendingBooks.refresh();
+
+        assertThat(trendingBooks.findTrending(TrendingWindow.ONE_HOUR)).containsExactly(1);
+        assertThat(trendingBooks.findTrending(TrendingWindow.ONE_DAY)).containsExactly(2, 1);
+        assertThat(trendingBooks.findTrending(TrendingWindow.ONE_WEEK)).containsExactly(2, 1);
+    }
+
+    @Test
+    void countsARedeliveredEventOnce() {
+        final TrendingBooks trendingBooks = new TrendingBooks(this.transactionRepository, this.feedbackRepository, 10, 1000);
+        trendingBooks.onEvent(borrow(1L, 1, LocalDateTime.now()));
+        trendingBooks.onEvent(borrow(2L, 2, LocalDateTime.now()));
+        trendingBooks.onEvent(borrow(2L, 2, LocalDateTime.now()));
+        trendingBooks.onEvent(borrow(3L, 1, LocalDateTime.now()));
+
+        trendingBooks.refresh();
+
+        assertThat(trendingBooks.findTrending(TrendingWindow.ONE_HOUR)).containsExactly(1, 2);
+    }
+
+    @Test
+    void seedsTheWindowsFromStoredRowsWithoutRecountingTheirEvents() {
+        final TrendingBooks trendingBooks = new TrendingBooks(this.transactionRepository, this.feedbackRepository, 10, 1000);
+        when(this.transactionRepository.findBorrowSignalsAfter(any(), eq(0), any()))
+                .thenReturn(List.of(new TrendingSignal(7, 1, LocalDateTime.now().minusDays(2))));
+        when(this.feedbackRepository.findFeedbackSignalsAfter(any(), eq(0), any()))
+                .thenReturn(List.of(new TrendingSignal(8, 2, LocalDateTime.now().minusDays(2))));
+
+        trendingBooks.seed();
+        trendingBooks.onEvent(borrow(1L, 2, LocalDateTime.now().minusDays(2)));
+        trendingBooks.onEvent(new DomainEvent(2L, DomainEventType.BOOK_BORROWED, 1, 1, 7, LocalDateTime.now().minusDays(2)));
+        trendingBooks.refresh();
+
+        assertThat(trendingBooks.findTrending(TrendingWindow.ONE_HOUR)).isEmpty();
+        assertThat(trendingBooks.findTrending(TrendingWindow.ONE_WEEK)).containsExactly(2, 1);
+    }
+
+    private static DomainEvent borrow(final Long id, final Integer bookId, final LocalDateTime occurredAt) {
+        return new DomainEvent(id, DomainEventType.BOOK_BORROWED, bookId, 1, id.intValue(), occurredAt);
+    }
+}